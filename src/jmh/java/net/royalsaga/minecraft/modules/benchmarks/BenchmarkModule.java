@@ -0,0 +1,109 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.benchmarks;
+
+import net.royalsaga.minecraft.modules.annotations.ModuleInfo;
+import net.royalsaga.minecraft.modules.modules.Module;
+import net.royalsaga.minecraft.modules.modules.ModuleDescriptor;
+import net.royalsaga.minecraft.modules.modules.ModuleListener;
+import net.royalsaga.minecraft.modules.placeholders.PlaceholderProvider;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Module with a listener and placeholders, used to measure what registering a module costs
+ */
+@ModuleInfo(id = BenchmarkModule.ID)
+public class BenchmarkModule extends Module<BenchmarkServer.BenchmarkPlugin> implements PlaceholderProvider {
+
+    public static final String ID = "benchmark";
+
+    private BenchmarkModule(@NotNull final BenchmarkServer.BenchmarkPlugin plugin) {
+        super(plugin, false);
+    }
+
+    /**
+     * Create a module with the {@value #ID} id
+     */
+    @NotNull
+    public static BenchmarkModule create(@NotNull final BenchmarkServer.BenchmarkPlugin plugin) {
+        return (BenchmarkModule) descriptor(ID).create(plugin);
+    }
+
+    /**
+     * Describe a module with its own id, so many modules can be registered at once
+     */
+    @NotNull
+    public static ModuleDescriptor<BenchmarkServer.BenchmarkPlugin> descriptor(@NotNull final String id) {
+        return new ModuleDescriptor<>(BenchmarkModule.class, id, Collections.emptyList(), plugin -> new BenchmarkModule(createFolder(plugin, id)));
+    }
+
+    @NotNull
+    private static BenchmarkServer.BenchmarkPlugin createFolder(@NotNull final BenchmarkServer.BenchmarkPlugin plugin, @NotNull final String id) {
+        try {
+            Files.createDirectories(plugin.getDataFolder().toPath().resolve("modules").resolve(id));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return plugin;
+    }
+
+    @Override
+    public List<? extends ModuleListener<? extends Module<BenchmarkServer.BenchmarkPlugin>>> getListeners() {
+        return Collections.singletonList(new Listener(this));
+    }
+
+    @Override
+    public @Nullable String parse(@Nullable final OfflinePlayer offlinePlayer, @NotNull final String params) {
+        return params;
+    }
+
+    public static final class Listener extends ModuleListener<BenchmarkModule> {
+
+        public Listener(@NotNull final BenchmarkModule module) {
+            super(module);
+        }
+
+        @EventHandler
+        public void onJoin(final PlayerJoinEvent event) {
+        }
+
+        @EventHandler
+        public void onQuit(final PlayerQuitEvent event) {
+        }
+
+    }
+
+}
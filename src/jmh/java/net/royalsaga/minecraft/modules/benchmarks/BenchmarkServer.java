@@ -0,0 +1,134 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.benchmarks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Minimal Paper server and plugin, so the benchmarks run offline without a server. The server is a proxy whose plugin
+ * manager and scheduler do nothing and whose command map is a plain {@link SimpleCommandMap}.
+ */
+final class BenchmarkServer {
+
+    private static BenchmarkPlugin plugin;
+
+    private BenchmarkServer() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * @return plugin with an empty data folder, created on the first call
+     */
+    @NotNull
+    static synchronized BenchmarkPlugin getPlugin() {
+        if (plugin != null) {
+            return plugin;
+        }
+
+        final Logger logger = Logger.getLogger("Benchmark");
+        logger.setUseParentHandlers(false);
+
+        final Server server = stub(Server.class, new SimpleCommandMap[1], logger);
+        Bukkit.setServer(server);
+
+        try {
+            final File dataFolder = Files.createTempDirectory("modules-benchmark").toFile();
+            plugin = new BenchmarkPlugin(new JavaPluginLoader(server), new PluginDescriptionFile("Benchmark", "1.0.0", BenchmarkPlugin.class.getName()),
+                    dataFolder, new File(dataFolder, "Benchmark.jar"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Modules log every registration and config load
+        plugin.getLogger().setLevel(Level.WARNING);
+        return plugin;
+    }
+
+    @NotNull
+    private static <T> T stub(@NotNull final Class<T> type, @NotNull final SimpleCommandMap[] commandMap, @NotNull final Logger logger) {
+        return type.cast(Proxy.newProxyInstance(BenchmarkServer.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getLogger":
+                    return logger;
+                case "getCommandMap":
+                    if (commandMap[0] == null) {
+                        commandMap[0] = new SimpleCommandMap((Server) proxy);
+                    }
+
+                    return commandMap[0];
+                case "isPrimaryThread":
+                    return true;
+                case "getName":
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "Benchmark";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + " stub";
+                default:
+                    return defaultValue(method, commandMap, logger);
+            }
+        }));
+    }
+
+    private static Object defaultValue(@NotNull final Method method, @NotNull final SimpleCommandMap[] commandMap, @NotNull final Logger logger) {
+        final Class<?> type = method.getReturnType();
+
+        if (type == void.class || !type.isPrimitive()) {
+            return type.isInterface() && type.getName().startsWith("org.bukkit.") ? stub(type, commandMap, logger) : null;
+        }
+
+        // Zero of the primitive type
+        return Array.get(Array.newInstance(type, 1), 0);
+    }
+
+    static final class BenchmarkPlugin extends JavaPlugin {
+
+        BenchmarkPlugin(@NotNull final JavaPluginLoader loader, @NotNull final PluginDescriptionFile description,
+                        @NotNull final File dataFolder, @NotNull final File file) {
+            super(loader, description, dataFolder, file);
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.benchmarks;
+
+import net.royalsaga.minecraft.modules.config.Config;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Config#node(Object...)} lookups and {@link Config#reload()} for configs of {@link #entries} entries.
+ * Reloads read the binary snapshot, or parse the YAML and write the snapshot again if {@link Reload#snapshot} is false.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int entries;
+
+    private Config config;
+    private Path snapshot;
+    private String middle;
+
+    @Setup
+    public void setup() throws IOException {
+        final BenchmarkModule module = BenchmarkModule.create(BenchmarkServer.getPlugin());
+        final Path path = Paths.get("items-" + entries + ".yml");
+        final Path file = module.getPlugin().getDataFolder().toPath().resolve("modules").resolve(module.getId()).resolve(path);
+        final StringBuilder yaml = new StringBuilder();
+
+        for (int i = 0; i < entries; i++) {
+            yaml.append("item").append(i).append(":\n")
+                    .append("  name: Item ").append(i).append('\n')
+                    .append("  amount: ").append(i).append('\n')
+                    .append("  price: ").append(i).append(".5\n")
+                    .append("  enabled: true\n")
+                    .append("  lore:\n")
+                    .append("  - First line\n")
+                    .append("  - Second line\n");
+        }
+
+        Files.write(file, yaml.toString().getBytes(StandardCharsets.UTF_8));
+
+        config = new Config(module, path, false);
+        snapshot = file.resolveSibling("." + file.getFileName() + ".snapshot");
+        middle = "item" + entries / 2;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int node() {
+        return config.node(middle, "amount").getInt();
+    }
+
+    @Benchmark
+    public Config reload(final Reload reload) {
+        config.reload();
+        return config;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Reload {
+
+        @Param({"true", "false"})
+        public boolean snapshot;
+
+        @Setup(Level.Invocation)
+        public void setup(final ConfigBenchmark benchmark) throws IOException {
+            if (!snapshot) {
+                Files.deleteIfExists(benchmark.snapshot);
+            }
+        }
+
+    }
+
+}
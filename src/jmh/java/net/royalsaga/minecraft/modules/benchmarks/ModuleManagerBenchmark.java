@@ -0,0 +1,137 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.benchmarks;
+
+import net.royalsaga.minecraft.modules.modules.Module;
+import net.royalsaga.minecraft.modules.modules.ModuleDescriptor;
+import net.royalsaga.minecraft.modules.modules.ModuleManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ModuleManager#parsePlaceholder} through the registered providers, and registering and then
+ * unregistering {@link Modules#modules} modules with a listener and placeholders, each with its own id.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleManagerBenchmark {
+
+    private BenchmarkServer.BenchmarkPlugin plugin;
+    private ModuleManager<BenchmarkServer.BenchmarkPlugin> moduleManager;
+
+    @Setup
+    public void setup() {
+        plugin = BenchmarkServer.getPlugin();
+        moduleManager = new ModuleManager<>(plugin, null);
+        moduleManager.register(BenchmarkModule.create(plugin));
+    }
+
+    @Benchmark
+    public String parsePlaceholder() {
+        return moduleManager.parsePlaceholder(null, "benchmark_value");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int register(final Modules modules) {
+        for (final Module<BenchmarkServer.BenchmarkPlugin> module : modules.instances) {
+            moduleManager.register(module);
+        }
+
+        int unregistered = 0;
+
+        for (final Module<BenchmarkServer.BenchmarkPlugin> module : modules.instances) {
+            if (moduleManager.unregister(module.getId())) {
+                unregistered++;
+            }
+        }
+
+        return unregistered;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Modules {
+
+        @Param({"1", "10", "100"})
+        public int modules;
+
+        private final List<ModuleDescriptor<BenchmarkServer.BenchmarkPlugin>> descriptors = new ArrayList<>();
+        private final List<Module<BenchmarkServer.BenchmarkPlugin>> instances = new ArrayList<>();
+
+        /**
+         * Check that the modules get registered side by side instead of replacing each other
+         */
+        @Setup(Level.Trial)
+        public void check() {
+            descriptors.clear();
+
+            for (int i = 0; i < modules; i++) {
+                descriptors.add(BenchmarkModule.descriptor(BenchmarkModule.ID + "-" + i));
+            }
+
+            final ModuleManager<BenchmarkServer.BenchmarkPlugin> moduleManager = new ModuleManager<>(BenchmarkServer.getPlugin(), null);
+            setup();
+            instances.forEach(moduleManager::register);
+
+            if (moduleManager.getModules().size() != modules) {
+                throw new IllegalStateException("Registered " + moduleManager.getModules().size() + " modules instead of " + modules);
+            }
+
+            instances.forEach(it -> moduleManager.unregister(it.getId()));
+        }
+
+        /**
+         * Modules are created outside of the measurement, creating them loads their config
+         */
+        @Setup(Level.Invocation)
+        public void setup() {
+            final BenchmarkServer.BenchmarkPlugin plugin = BenchmarkServer.getPlugin();
+            instances.clear();
+
+            for (final ModuleDescriptor<BenchmarkServer.BenchmarkPlugin> descriptor : descriptors) {
+                instances.add(descriptor.create(plugin));
+            }
+        }
+
+    }
+
+}
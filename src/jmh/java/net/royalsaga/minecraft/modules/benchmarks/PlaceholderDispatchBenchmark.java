@@ -0,0 +1,102 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.benchmarks;
+
+import net.royalsaga.minecraft.modules.placeholders.PlaceholderIndex;
+import net.royalsaga.minecraft.modules.placeholders.PlaceholderProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old {@code split("_", 2)} dispatch with {@link PlaceholderIndex}.
+ * Run with {@code ./gradlew jmh}, the gc profiler reports {@code gc.alloc.rate.norm} per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceholderDispatchBenchmark {
+
+    private static final String VALUE = "value";
+
+    @Param({"10", "40"})
+    public int modules;
+
+    @Param({"module7", "module7_rank"})
+    public String params;
+
+    private Map<String, PlaceholderProvider> providers;
+    private PlaceholderIndex index;
+    private int idEnd;
+
+    @Setup
+    public void setup() {
+        providers = new HashMap<>();
+
+        for (int i = 0; i < modules; i++) {
+            providers.put("module" + i, (player, params) -> VALUE);
+        }
+
+        index = PlaceholderIndex.of(providers);
+        idEnd = params.indexOf('_') == -1 ? params.length() : params.indexOf('_');
+    }
+
+    @Benchmark
+    public String split() {
+        final String[] split = params.split("_", 2);
+        final PlaceholderProvider provider = providers.get(split[0]);
+
+        if (provider == null) {
+            return null;
+        }
+
+        return provider.parse(null, (split.length == 1) ? "" : split[1]);
+    }
+
+    @Benchmark
+    public String index() {
+        return index.parse(null, params);
+    }
+
+    @Benchmark
+    public PlaceholderProvider lookup() {
+        return index.find(params, 0, idEnd);
+    }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a {@link net.royalsaga.minecraft.modules.modules.ModuleCommand ModuleCommand} method, or all the methods of a
+ * command class, on the module's {@link net.royalsaga.minecraft.modules.modules.ModuleScheduler#getAsyncExecutor() thread pool}.
+ * Argument resolution runs there too, so parameter resolvers must not use the Bukkit API that requires the main thread.
+ * <p>
+ * The command gets the real sender, messages can be sent to it from any thread, other Bukkit calls must be scheduled on the
+ * main thread, for example with {@link net.royalsaga.minecraft.modules.modules.ModuleScheduler#runOnMain(Runnable)}.
+ * A module runs at most
+ * {@link net.royalsaga.minecraft.modules.modules.ModuleManager#setAsyncCommandLimit(int) 4} async commands at once,
+ * senders are told to try again when the limit is reached. The messages sent to senders are registered in the command
+ * manager's {@link me.mattstudios.mf.base.MessageHandler} and can be replaced, see
+ * {@link net.royalsaga.minecraft.modules.modules.ModuleManager#ASYNC_COMMAND_BUSY_MESSAGE}.
+ *
+ * @since 1.1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface AsyncCommand {
+
+    /**
+     * @return seconds after which the command is interrupted and the sender is told it timed out, 0 to never time out
+     */
+    int timeout() default 30;
+
+}
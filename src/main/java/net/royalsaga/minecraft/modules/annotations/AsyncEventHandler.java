@@ -0,0 +1,66 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.annotations;
+
+import org.bukkit.event.EventPriority;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a {@link net.royalsaga.minecraft.modules.modules.ModuleListener ModuleListener} as an event handler
+ * whose work is done off the main thread. The method is called on the thread the event is fired on, like an
+ * {@link org.bukkit.event.EventHandler EventHandler}, and returns a {@link Runnable} that is run on the module's async
+ * event executor, or null if there's nothing to do:
+ * <pre>{@code
+ * @AsyncEventHandler
+ * public Runnable onJoin(final PlayerJoinEvent event) {
+ *     final UUID uuid = event.getPlayer().getUniqueId();
+ *     return () -> database.logJoin(uuid);
+ * }
+ * }</pre>
+ * The returned task must only use values copied from the event, the event itself may have changed by the time it runs.
+ * When the executor's queue is full the task is dropped and counted in
+ * {@link net.royalsaga.minecraft.modules.metrics.ModuleMetrics#getDroppedAsyncEvents()}.
+ *
+ * @see net.royalsaga.minecraft.modules.modules.ModuleManager#setAsyncEventQueueCapacity(int)
+ * @since 1.1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AsyncEventHandler {
+
+    /**
+     * @return priority of the handler, {@link EventPriority#MONITOR} by default so the task sees the outcome of the event
+     */
+    EventPriority priority() default EventPriority.MONITOR;
+
+    /**
+     * @return whether the handler is skipped for cancelled events
+     */
+    boolean ignoreCancelled() default false;
+
+}
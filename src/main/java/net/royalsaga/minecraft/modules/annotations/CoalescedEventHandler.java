@@ -0,0 +1,64 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.annotations;
+
+import net.royalsaga.minecraft.modules.modules.EventReducer;
+import org.bukkit.event.EventPriority;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a {@link net.royalsaga.minecraft.modules.modules.ModuleListener ModuleListener} as an event handler
+ * for high frequency events, like {@link org.bukkit.event.player.PlayerMoveEvent PlayerMoveEvent}. The events fired
+ * during a tick are collected per player for {@link org.bukkit.event.player.PlayerEvent player events}, per entity for
+ * {@link org.bukkit.event.entity.EntityEvent entity events} and all together for other events, folded with the
+ * {@link #reducer()}, and the method is called once per player, entity or event type at the start of the next tick.
+ * <p>
+ * The method is called after the event was handled, so changing or cancelling the event has no effect.
+ *
+ * @since 1.1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CoalescedEventHandler {
+
+    /**
+     * @return reducer folding the events of a tick, by default the latest event is kept
+     */
+    Class<? extends EventReducer<?>> reducer() default EventReducer.Latest.class;
+
+    /**
+     * @return priority at which the events are collected, {@link EventPriority#MONITOR} by default
+     */
+    EventPriority priority() default EventPriority.MONITOR;
+
+    /**
+     * @return whether cancelled events are skipped
+     */
+    boolean ignoreCancelled() default false;
+
+}
@@ -34,4 +34,12 @@ public @interface ModuleInfo {
 
     String id();
 
+    /**
+     * Ids of the modules that have to be registered before this one
+     * @return module ids
+     * @see net.royalsaga.minecraft.modules.modules.ModuleManager#registerAll(java.util.Collection)
+     * @since 1.1.0
+     */
+    String[] depends() default {};
+
 }
@@ -24,16 +24,32 @@
 package net.royalsaga.minecraft.modules.config;
 
 import net.royalsaga.minecraft.modules.modules.Module;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.configurate.CommentedConfigurationNode;
 import org.spongepowered.configurate.ConfigurateException;
+import org.spongepowered.configurate.serialize.SerializationException;
 import org.spongepowered.configurate.yaml.NodeStyle;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 
 /**
  * Class that represents a config located on {@code /plugins/<plugin>/modules/<module id>/}
@@ -46,9 +62,17 @@ public class Config {
 
     private final Module<?> module;
     private final Path path;
+    private final boolean streaming;
 
-    private final YamlConfigurationLoader loader;
-    private CommentedConfigurationNode root;
+    private volatile CommentedConfigurationNode root;
+    /**
+     * Hash of the content {@link #root} was parsed from
+     */
+    private byte[] hash;
+    private volatile boolean loadedFromSnapshot;
+    private volatile long loadTime;
+
+    private final List<ConfigKey<?>> keys = new CopyOnWriteArrayList<>();
 
     /**
      * @param module     module
@@ -58,10 +82,24 @@ public class Config {
      * @since 1.0.0
      */
     public Config(Module<?> module, Path path, boolean isResource) {
+        this(module, path, isResource, false);
+    }
+
+    /**
+     * @param module     module
+     * @param path       path starting from {@code /plugins/<plugin>/modules/<module id>/}
+     * @param isResource whether the file can be found on plugin's resources folder
+     * @param streaming  whether the nodes are never kept in memory, only read with {@link #stream(BiConsumer)}, for
+     *                   large files like item databases
+     * @see org.bukkit.plugin.java.JavaPlugin#saveResource(String, boolean)
+     * @since 1.1.0
+     */
+    public Config(Module<?> module, Path path, boolean isResource, boolean streaming) {
         final Path pathFromDataFolder = Paths.get("modules", module.getId()).resolve(path);
 
         this.module = module;
         this.path = module.getPlugin().getDataFolder().toPath().resolve(pathFromDataFolder);
+        this.streaming = streaming;
 
         if (!Files.exists(this.path)) {
             if (isResource) {
@@ -79,13 +117,7 @@ public class Config {
             }
         }
 
-        this.loader = YamlConfigurationLoader.builder()
-                .indent(2)
-                .nodeStyle(NodeStyle.BLOCK)
-                .path(this.path)
-                .build();
-
-        load();
+        load(false);
     }
 
     /**
@@ -99,26 +131,371 @@ public class Config {
     }
 
     /**
-     * Load the config
+     * Load the config, from its binary snapshot if the file did not change since the snapshot was written
      *
+     * @param onlyIfChanged whether to skip parsing when the file content has the same hash as the loaded content
+     * @return true if a new root node was loaded
      * @see YamlConfigurationLoader#load()
+     * @see ConfigSnapshot
      */
-    private void load() {
+    private synchronized boolean load(final boolean onlyIfChanged) {
+        if (streaming) {
+            return checkStreamed(onlyIfChanged);
+        }
+
+        final long start = System.nanoTime();
+        final long modifiedTime;
+        final byte[] content;
+
         try {
-            this.root = loader.load();
-        } catch (ConfigurateException e) {
+            modifiedTime = Files.getLastModifiedTime(path).toMillis();
+            content = Files.readAllBytes(path);
+        } catch (IOException e) {
+            module.error("Could not load " + this.path, e);
+            return false;
+        }
+
+        final byte[] hash = hash(content);
+
+        if (onlyIfChanged && Arrays.equals(hash, this.hash)) {
+            return false;
+        }
+
+        final YamlConfigurationLoader loader = YamlConfigurationLoader.builder()
+                .indent(2)
+                .nodeStyle(NodeStyle.BLOCK)
+                .source(() -> new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8)))
+                .build();
+        final Path snapshot = getSnapshotPath();
+
+        CommentedConfigurationNode root = null;
+
+        try {
+            root = ConfigSnapshot.read(snapshot, modifiedTime, hash, loader.defaultOptions());
+        } catch (IOException e) {
+            module.warn("Could not read " + snapshot + ", loading " + this.path + " instead: " + e.getMessage());
+        }
+
+        final boolean fromSnapshot = root != null;
+
+        if (!fromSnapshot) {
+            try {
+                root = loader.load();
+            } catch (ConfigurateException e) {
+                module.error("Could not load " + this.path, e);
+                return false;
+            }
+
+            try {
+                ConfigSnapshot.write(snapshot, modifiedTime, hash, root);
+            } catch (IOException | IllegalArgumentException e) {
+                module.warn("Could not write " + snapshot + ": " + e.getMessage());
+            }
+        }
+
+        this.root = root;
+        this.hash = hash;
+        this.loadedFromSnapshot = fromSnapshot;
+        this.loadTime = System.nanoTime() - start;
+        keys.forEach(this::refresh);
+
+        module.info(String.format("Loaded %s from %s in %.2fms", path.getFileName(), fromSnapshot ? "snapshot" : "YAML", loadTime / 1_000_000.0));
+        return true;
+    }
+
+    /**
+     * Hash a streamed config without reading the whole file in memory, the nodes are read by {@link #stream(BiConsumer)}
+     *
+     * @param onlyIfChanged whether to return false when the file content has the same hash as the last time
+     * @return true if the file changed
+     */
+    private boolean checkStreamed(final boolean onlyIfChanged) {
+        final long start = System.nanoTime();
+        final MessageDigest digest = newDigest();
+
+        try (final InputStream input = Files.newInputStream(path)) {
+            final byte[] buffer = new byte[8192];
+
+            for (int read; (read = input.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
             module.error("Could not load " + this.path, e);
+            return false;
+        }
+
+        final byte[] hash = digest.digest();
+
+        if (onlyIfChanged && Arrays.equals(hash, this.hash)) {
+            return false;
+        }
+
+        this.hash = hash;
+        this.loadTime = System.nanoTime() - start;
+        keys.forEach(this::refresh);
+        return true;
+    }
+
+    /**
+     * Read the top level entries of the config file one at a time, without keeping the whole file in memory. Each entry
+     * is parsed into a new node that is only referenced by the consumer, so modules can map it to their own objects and
+     * heap use doesn't grow with the file size. Entries of a top level list have their index as key.
+     * <p>
+     * The file is read on the calling thread, every time this method is called.
+     *
+     * @param consumer consumer of the key and value of each entry
+     * @throws IOException if the file can't be read or is not valid YAML
+     * @see #Config(Module, Path, boolean, boolean)
+     * @since 1.1.0
+     */
+    public void stream(@NotNull final BiConsumer<String, CommentedConfigurationNode> consumer) throws IOException {
+        final long start = System.nanoTime();
+        final int[] entries = {0};
+
+        try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            ConfigStreamReader.read(reader, YamlConfigurationLoader.builder().path(path).build().defaultOptions(), (key, node) -> {
+                entries[0]++;
+                consumer.accept(key, node);
+            });
         }
+
+        module.info(String.format("Streamed %d entries of %s in %.2fms", entries[0], path.getFileName(), (System.nanoTime() - start) / 1_000_000.0));
+    }
+
+    /**
+     * @return path of the binary snapshot, a hidden file next to the config file
+     */
+    @NotNull
+    private Path getSnapshotPath() {
+        return path.resolveSibling("." + path.getFileName() + ".snapshot");
+    }
+
+    @NotNull
+    private static byte[] hash(@NotNull final byte[] content) {
+        return newDigest().digest(content);
+    }
+
+    @NotNull
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void refresh(@NotNull final ConfigKey<?> key) {
+        try {
+            key.refresh(root == null ? null : root.node(key.path()));
+        } catch (SerializationException e) {
+            module.error("Invalid value at " + Arrays.toString(key.path()) + " in " + this.path + ", using the default value", e);
+        }
+    }
+
+    @NotNull
+    private <K extends ConfigKey<?>> K register(@NotNull final K key) {
+        synchronized (this) {
+            refresh(key);
+            keys.add(key);
+        }
+
+        return key;
+    }
+
+    /**
+     * Create a key for an {@code int} value, kept up to date when the config is reloaded
+     *
+     * @param def  value used when the node is missing or invalid
+     * @param path path of the node
+     * @return key
+     * @since 1.1.0
+     */
+    @NotNull
+    public ConfigKey.IntKey intKey(final int def, @NotNull final Object... path) {
+        return register(new ConfigKey.IntKey(path, def));
+    }
+
+    /**
+     * Create a key for a {@code long} value, kept up to date when the config is reloaded
+     *
+     * @param def  value used when the node is missing or invalid
+     * @param path path of the node
+     * @return key
+     * @since 1.1.0
+     */
+    @NotNull
+    public ConfigKey.LongKey longKey(final long def, @NotNull final Object... path) {
+        return register(new ConfigKey.LongKey(path, def));
+    }
+
+    /**
+     * Create a key for a {@code double} value, kept up to date when the config is reloaded
+     *
+     * @param def  value used when the node is missing or invalid
+     * @param path path of the node
+     * @return key
+     * @since 1.1.0
+     */
+    @NotNull
+    public ConfigKey.DoubleKey doubleKey(final double def, @NotNull final Object... path) {
+        return register(new ConfigKey.DoubleKey(path, def));
+    }
+
+    /**
+     * Create a key for a {@code boolean} value, kept up to date when the config is reloaded
+     *
+     * @param def  value used when the node is missing or invalid
+     * @param path path of the node
+     * @return key
+     * @since 1.1.0
+     */
+    @NotNull
+    public ConfigKey.BooleanKey booleanKey(final boolean def, @NotNull final Object... path) {
+        return register(new ConfigKey.BooleanKey(path, def));
+    }
+
+    /**
+     * Create a key for a {@link String} value, kept up to date when the config is reloaded
+     *
+     * @param def  value used when the node is missing
+     * @param path path of the node
+     * @return key
+     * @since 1.1.0
+     */
+    @NotNull
+    public ConfigKey.ValueKey<String> stringKey(@Nullable final String def, @NotNull final Object... path) {
+        return key(String.class, def, path);
+    }
+
+    /**
+     * Create a key for a value of any type supported by Configurate, kept up to date when the config is reloaded
+     *
+     * @param type type of the value
+     * @param def  value used when the node is missing or invalid
+     * @param path path of the node
+     * @param <T>  type of the value
+     * @return key
+     * @since 1.1.0
+     */
+    @NotNull
+    public <T> ConfigKey.ValueKey<T> key(@NotNull final Class<T> type, @Nullable final T def, @NotNull final Object... path) {
+        return register(new ConfigKey.ValueKey<>(path, type, def));
     }
 
     /**
      * Reload the config
      *
-     * @see #load()
+     * @see #load(boolean)
      * @since 1.0.0
      */
     public void reload() {
-        load();
+        load(false);
+    }
+
+    /**
+     * Watch the config file for changes. Changes are parsed off the main thread and, if the content of the file changed,
+     * the new nodes replace the current ones and {@link Module#onReload()} is called on the main thread.
+     *
+     * @see #unwatch()
+     * @since 1.1.0
+     */
+    public void watch() {
+        try {
+            ConfigWatcher.watch(this);
+        } catch (IOException e) {
+            module.error("Could not watch " + this.path, e);
+        }
+    }
+
+    /**
+     * Stop watching the config file for changes
+     *
+     * @see #watch()
+     * @since 1.1.0
+     */
+    public void unwatch() {
+        ConfigWatcher.unwatch(this);
+    }
+
+    /**
+     * @return whether the config file is watched for changes
+     * @see #watch()
+     * @since 1.1.0
+     */
+    public boolean isWatched() {
+        return ConfigWatcher.isWatched(this);
+    }
+
+    /**
+     * Stop watching the config files of all the modules of a plugin
+     *
+     * @param plugin plugin
+     * @see #unwatch()
+     * @since 1.1.0
+     */
+    public static void unwatchAll(@NotNull final Plugin plugin) {
+        ConfigWatcher.unwatchAll(plugin);
+    }
+
+    /**
+     * Called by {@link ConfigWatcher}, off the main thread, after the file changed
+     */
+    void onFileChanged() {
+        if (!load(true)) {
+            return;
+        }
+
+        final Plugin plugin = module.getPlugin();
+
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                try {
+                    module.onReload();
+                } catch (RuntimeException e) {
+                    module.error("Error while reloading", e);
+                }
+            });
+        }
+    }
+
+    @NotNull
+    public Module<?> getModule() {
+        return module;
+    }
+
+    /**
+     * @return whether the last load read the binary snapshot instead of parsing the YAML file
+     * @since 1.1.0
+     */
+    public boolean isLoadedFromSnapshot() {
+        return loadedFromSnapshot;
+    }
+
+    /**
+     * @return how long the last load took, reading the file included
+     * @since 1.1.0
+     */
+    @NotNull
+    public Duration getLoadTime() {
+        return Duration.ofNanos(loadTime);
+    }
+
+    /**
+     * @return whether the nodes are only read with {@link #stream(BiConsumer)}
+     * @since 1.1.0
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * @return path of the config file
+     * @since 1.1.0
+     */
+    @NotNull
+    public Path getPath() {
+        return path;
     }
 
     /**
@@ -138,9 +515,14 @@ public class Config {
      *
      * @param path the path to fetch the node at
      * @return the node at the given path, possibly virtual
+     * @throws IllegalStateException if the config is {@link #isStreaming() streaming}
      **/
     @NotNull
     public CommentedConfigurationNode node(final Object... path) {
+        if (streaming) {
+            throw new IllegalStateException(this.path + " is streamed, read it with stream()");
+        }
+
         return root.node(path);
     }
 
@@ -0,0 +1,226 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+/**
+ * Value of a {@link Config} node that is resolved when the config is loaded, so reading it is a field read.
+ * Primitive values have their own key types that store them unboxed.
+ *
+ * @param <T> type of the value
+ * @see Config#intKey(int, Object...)
+ * @see Config#key(Class, Object, Object...)
+ * @since 1.1.0
+ */
+public abstract class ConfigKey<T> {
+
+    private final Object[] path;
+
+    ConfigKey(@NotNull final Object[] path) {
+        this.path = path.clone();
+    }
+
+    /**
+     * Resolve the value again
+     *
+     * @param node node at the key's path, null if the config could not be loaded
+     * @throws SerializationException if the node can't be converted to the key's type
+     */
+    abstract void refresh(@Nullable final ConfigurationNode node) throws SerializationException;
+
+    /**
+     * Get the value, primitive keys box it
+     *
+     * @return value
+     * @since 1.1.0
+     */
+    public abstract T get();
+
+    /**
+     * @return path of the node
+     * @since 1.1.0
+     */
+    @NotNull
+    public Object[] getPath() {
+        return path.clone();
+    }
+
+    @NotNull
+    Object[] path() {
+        return path;
+    }
+
+    public static final class IntKey extends ConfigKey<Integer> {
+
+        private final int def;
+        private volatile int value;
+
+        IntKey(@NotNull final Object[] path, final int def) {
+            super(path);
+            this.def = def;
+            this.value = def;
+        }
+
+        @Override
+        void refresh(@Nullable final ConfigurationNode node) {
+            value = node == null ? def : node.getInt(def);
+        }
+
+        public int getInt() {
+            return value;
+        }
+
+        @Override
+        public Integer get() {
+            return value;
+        }
+
+    }
+
+    public static final class LongKey extends ConfigKey<Long> {
+
+        private final long def;
+        private volatile long value;
+
+        LongKey(@NotNull final Object[] path, final long def) {
+            super(path);
+            this.def = def;
+            this.value = def;
+        }
+
+        @Override
+        void refresh(@Nullable final ConfigurationNode node) {
+            value = node == null ? def : node.getLong(def);
+        }
+
+        public long getLong() {
+            return value;
+        }
+
+        @Override
+        public Long get() {
+            return value;
+        }
+
+    }
+
+    public static final class DoubleKey extends ConfigKey<Double> {
+
+        private final double def;
+        private volatile double value;
+
+        DoubleKey(@NotNull final Object[] path, final double def) {
+            super(path);
+            this.def = def;
+            this.value = def;
+        }
+
+        @Override
+        void refresh(@Nullable final ConfigurationNode node) {
+            value = node == null ? def : node.getDouble(def);
+        }
+
+        public double getDouble() {
+            return value;
+        }
+
+        @Override
+        public Double get() {
+            return value;
+        }
+
+    }
+
+    public static final class BooleanKey extends ConfigKey<Boolean> {
+
+        private final boolean def;
+        private volatile boolean value;
+
+        BooleanKey(@NotNull final Object[] path, final boolean def) {
+            super(path);
+            this.def = def;
+            this.value = def;
+        }
+
+        @Override
+        void refresh(@Nullable final ConfigurationNode node) {
+            value = node == null ? def : node.getBoolean(def);
+        }
+
+        public boolean getBoolean() {
+            return value;
+        }
+
+        @Override
+        public Boolean get() {
+            return value;
+        }
+
+    }
+
+    /**
+     * Key for any type supported by Configurate's serializers
+     *
+     * @param <T> type of the value
+     */
+    public static final class ValueKey<T> extends ConfigKey<T> {
+
+        private final Class<T> type;
+        private final T def;
+        private volatile T value;
+
+        ValueKey(@NotNull final Object[] path, @NotNull final Class<T> type, @Nullable final T def) {
+            super(path);
+            this.type = type;
+            this.def = def;
+            this.value = def;
+        }
+
+        @Override
+        void refresh(@Nullable final ConfigurationNode node) throws SerializationException {
+            if (node == null) {
+                value = def;
+                return;
+            }
+
+            try {
+                value = node.get(type, def);
+            } catch (SerializationException e) {
+                value = def;
+                throw e;
+            }
+        }
+
+        @Override
+        public T get() {
+            return value;
+        }
+
+    }
+
+}
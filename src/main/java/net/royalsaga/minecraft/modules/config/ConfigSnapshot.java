@@ -0,0 +1,338 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.configurate.CommentedConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary copy of a parsed config, stored next to the YAML file and keyed by the YAML file's
+ * modification time and content hash
+ *
+ * <p>Format: a header with {@link #MAGIC}, {@link #VERSION}, the modification time and the hash, followed by the root node.
+ * Each node is its comment, a type tag and its value; maps are a size followed by key and node pairs, lists a size followed
+ * by nodes. Strings are a length followed by UTF-8 bytes.</p>
+ *
+ * @see Config#isLoadedFromSnapshot()
+ * @since 1.1.0
+ */
+final class ConfigSnapshot {
+
+    private static final int MAGIC = 0x52534353;
+    private static final byte VERSION = 1;
+    /**
+     * Size of the header before the hash: magic, version, modification time and hash length
+     */
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 4;
+
+    private static final byte NULL = 0;
+    private static final byte MAP = 1;
+    private static final byte LIST = 2;
+    private static final byte STRING = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte FLOAT = 7;
+    private static final byte BOOLEAN = 8;
+
+    private ConfigSnapshot() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Read a snapshot. The header is read into a heap buffer, and only the root node of a snapshot taken from the same
+     * YAML file is read through a memory mapped buffer, so a stale snapshot isn't mapped while it's replaced.
+     *
+     * @param file         snapshot file
+     * @param modifiedTime modification time of the YAML file
+     * @param hash         hash of the YAML file's content
+     * @param options      options of the created nodes
+     * @return root node, or null if there's no snapshot, its header is truncated or it was taken from a different YAML file
+     * @throws IOException if the snapshot can't be read or is corrupted, a corrupted snapshot is deleted
+     */
+    @Nullable
+    static CommentedConfigurationNode read(@NotNull final Path file, final long modifiedTime, @NotNull final byte[] hash,
+                                           @NotNull final ConfigurationOptions options) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + hash.length);
+        final MappedByteBuffer buffer;
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read until the header is full or the file ends
+            }
+
+            header.flip();
+
+            if (!matches(header, modifiedTime, hash)) {
+                return null;
+            }
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, header.limit(), channel.size() - header.limit());
+        }
+
+        try {
+            final CommentedConfigurationNode root = CommentedConfigurationNode.root(options);
+            readNode(buffer, root);
+            return root;
+        } catch (RuntimeException e) {
+            // Truncated or corrupted file, it's written again from the YAML file
+            final IOException exception = new IOException("Corrupted config snapshot " + file, e);
+
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException deleteException) {
+                exception.addSuppressed(deleteException);
+            }
+
+            throw exception;
+        }
+    }
+
+    /**
+     * @param header       header read from the snapshot
+     * @param modifiedTime modification time of the YAML file
+     * @param hash         hash of the YAML file's content
+     * @return true if the header is complete and the snapshot was taken from the YAML file
+     */
+    private static boolean matches(@NotNull final ByteBuffer header, final long modifiedTime, @NotNull final byte[] hash) {
+        if (header.remaining() < header.capacity()
+                || header.getInt() != MAGIC || header.get() != VERSION || header.getLong() != modifiedTime || header.getInt() != hash.length) {
+            return false;
+        }
+
+        final byte[] snapshotHash = new byte[hash.length];
+        header.get(snapshotHash);
+        return Arrays.equals(hash, snapshotHash);
+    }
+
+    /**
+     * Write a snapshot, replacing the previous one
+     *
+     * @param file         snapshot file
+     * @param modifiedTime modification time of the YAML file
+     * @param hash         hash of the YAML file's content
+     * @param root         root node parsed from the YAML file
+     * @throws IOException if the snapshot can't be written
+     */
+    static void write(@NotNull final Path file, final long modifiedTime, @NotNull final byte[] hash,
+                      @NotNull final CommentedConfigurationNode root) throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.writeLong(modifiedTime);
+            output.writeInt(hash.length);
+            output.write(hash);
+            writeNode(output, root);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void readNode(@NotNull final ByteBuffer buffer, @NotNull final CommentedConfigurationNode node) {
+        final String comment = buffer.get() == 1 ? readString(buffer) : null;
+        final byte type = buffer.get();
+
+        switch (type) {
+            case NULL:
+                break;
+            case MAP: {
+                // A key type, a key and a node take at least 3 bytes
+                final int size = readLength(buffer, 3);
+
+                if (size == 0) {
+                    node.raw(Collections.emptyMap());
+                }
+
+                for (int i = 0; i < size; i++) {
+                    readNode(buffer, node.node(readScalar(buffer, buffer.get())));
+                }
+                break;
+            }
+            case LIST: {
+                // A node takes at least 2 bytes
+                final int size = readLength(buffer, 2);
+
+                if (size == 0) {
+                    node.raw(Collections.emptyList());
+                }
+
+                for (int i = 0; i < size; i++) {
+                    readNode(buffer, node.appendListNode());
+                }
+                break;
+            }
+            default:
+                node.raw(readScalar(buffer, type));
+        }
+
+        if (comment != null) {
+            node.comment(comment);
+        }
+    }
+
+    @NotNull
+    private static Object readScalar(@NotNull final ByteBuffer buffer, final byte type) {
+        switch (type) {
+            case STRING:
+                return readString(buffer);
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case FLOAT:
+                return buffer.getFloat();
+            case BOOLEAN:
+                return buffer.get() == 1;
+            default:
+                throw new IllegalArgumentException("Unknown value type " + type);
+        }
+    }
+
+    @NotNull
+    private static String readString(@NotNull final ByteBuffer buffer) {
+        final byte[] bytes = new byte[readLength(buffer, 1)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read the length of a string or the size of a map or list
+     *
+     * @param buffer      buffer
+     * @param elementSize minimum size of each element, in bytes
+     * @return length
+     * @throws IllegalArgumentException if the remaining bytes can't hold that many elements
+     */
+    private static int readLength(@NotNull final ByteBuffer buffer, final int elementSize) {
+        final int length = buffer.getInt();
+
+        if (length < 0 || length > buffer.remaining() / elementSize) {
+            throw new IllegalArgumentException("Invalid length " + length + " with " + buffer.remaining() + " bytes left");
+        }
+
+        return length;
+    }
+
+    private static void writeNode(@NotNull final DataOutputStream output, @NotNull final CommentedConfigurationNode node) throws IOException {
+        final String comment = node.comment();
+
+        if (comment == null) {
+            output.writeByte(0);
+        } else {
+            output.writeByte(1);
+            writeString(output, comment);
+        }
+
+        if (node.isMap()) {
+            final Map<Object, CommentedConfigurationNode> children = node.childrenMap();
+            output.writeByte(MAP);
+            output.writeInt(children.size());
+
+            for (final Map.Entry<Object, CommentedConfigurationNode> entry : children.entrySet()) {
+                writeScalar(output, entry.getKey());
+                writeNode(output, entry.getValue());
+            }
+        } else if (node.isList()) {
+            final List<CommentedConfigurationNode> children = node.childrenList();
+            output.writeByte(LIST);
+            output.writeInt(children.size());
+
+            for (final CommentedConfigurationNode child : children) {
+                writeNode(output, child);
+            }
+        } else if (node.raw() == null) {
+            output.writeByte(NULL);
+        } else {
+            writeScalar(output, node.raw());
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value's type is not supported, the snapshot is not written then
+     */
+    private static void writeScalar(@NotNull final DataOutputStream output, @NotNull final Object value) throws IOException {
+        if (value instanceof String) {
+            output.writeByte(STRING);
+            writeString(output, (String) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(INT);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT);
+            output.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN);
+            output.writeByte((Boolean) value ? 1 : 0);
+        } else {
+            throw new IllegalArgumentException("Values of type " + value.getClass().getName() + " can't be stored in a snapshot");
+        }
+    }
+
+    private static void writeString(@NotNull final DataOutputStream output, @NotNull final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+}
@@ -0,0 +1,344 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.configurate.CommentedConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Builds the top level entries of a YAML document one at a time from SnakeYAML's event stream, so the whole document
+ * is never in memory. Scalars get the same types the YAML loader gives them, and anchors, aliases and merge keys
+ * ({@code <<}) are supported, only anchored nodes are kept until the end of the stream.
+ *
+ * @see Config#stream(BiConsumer)
+ */
+final class ConfigStreamReader {
+
+    private static final String MERGE_KEY = "<<";
+
+    private final ConfigurationOptions options;
+    private final BiConsumer<String, CommentedConfigurationNode> consumer;
+    private final Resolver resolver = new Resolver();
+
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final Map<String, CommentedConfigurationNode> anchors = new HashMap<>();
+
+    private ConfigStreamReader(@NotNull final ConfigurationOptions options, @NotNull final BiConsumer<String, CommentedConfigurationNode> consumer) {
+        this.options = options;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Read the top level entries of the documents of a YAML stream. Entries of a top level sequence have their index as
+     * key.
+     *
+     * @param reader   YAML stream
+     * @param options  options of the created nodes
+     * @param consumer consumer of the keys and values of the entries, the values are new root nodes
+     * @throws IOException if the stream can't be read or is not valid YAML
+     */
+    static void read(@NotNull final Reader reader, @NotNull final ConfigurationOptions options,
+                     @NotNull final BiConsumer<String, CommentedConfigurationNode> consumer) throws IOException {
+        final ConfigStreamReader streamReader = new ConfigStreamReader(options, consumer);
+
+        try {
+            for (final Event event : new Yaml().parse(reader)) {
+                streamReader.accept(event);
+            }
+        } catch (YAMLException e) {
+            // SnakeYAML wraps the IOExceptions of the reader
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void accept(@NotNull final Event event) throws IOException {
+        if (event instanceof CollectionStartEvent) {
+            final boolean mapping = event instanceof MappingStartEvent;
+
+            if (frames.isEmpty()) {
+                // The document's top level collection, its values are streamed
+                frames.push(new Frame(null, mapping));
+                return;
+            }
+
+            if (isKey()) {
+                throw new IOException("Complex mapping keys are not supported");
+            }
+
+            final CommentedConfigurationNode node = newValue();
+            node.raw(mapping ? Collections.emptyMap() : Collections.emptyList());
+            anchor((NodeEvent) event, node);
+            frames.push(new Frame(node, mapping));
+        } else if (event instanceof CollectionEndEvent) {
+            final Frame frame = frames.pop();
+
+            if (!frames.isEmpty()) {
+                completeValue(frame.node);
+            }
+        } else if (event instanceof ScalarEvent) {
+            if (frames.isEmpty()) {
+                // Top level scalar, the document has no entries
+                return;
+            }
+
+            final ScalarEvent scalar = (ScalarEvent) event;
+            final Object value = resolve(scalar);
+
+            if (isKey()) {
+                frames.peek().setKey(value);
+                return;
+            }
+
+            final CommentedConfigurationNode node = newValue();
+            node.raw(value);
+            anchor(scalar, node);
+            completeValue(node);
+        } else if (event instanceof AliasEvent) {
+            final String anchor = ((AliasEvent) event).getAnchor();
+            final CommentedConfigurationNode anchored = anchors.get(anchor);
+
+            if (anchored == null) {
+                throw new IOException("Unknown anchor " + anchor);
+            }
+
+            if (isKey()) {
+                frames.peek().setKey(anchored.raw());
+                return;
+            }
+
+            final CommentedConfigurationNode node = newValue();
+            node.from(anchored);
+            completeValue(node);
+        }
+    }
+
+    /**
+     * @return whether the next node is the key of a mapping entry
+     */
+    private boolean isKey() {
+        final Frame frame = frames.peek();
+        return frame != null && frame.mapping && !frame.hasKey;
+    }
+
+    /**
+     * @return node the next value is written to
+     */
+    @NotNull
+    private CommentedConfigurationNode newValue() {
+        final Frame frame = frames.peek();
+
+        // Values of top level entries and merged mappings are built apart
+        if (frame.node == null || (frame.mapping && MERGE_KEY.equals(frame.key))) {
+            return CommentedConfigurationNode.root(options);
+        }
+
+        return frame.mapping ? frame.node.node(frame.key) : frame.node.appendListNode();
+    }
+
+    private void completeValue(@NotNull final CommentedConfigurationNode node) {
+        final Frame frame = frames.peek();
+
+        if (frame.node == null) {
+            consumer.accept(frame.mapping ? String.valueOf(frame.key) : String.valueOf(frame.index++), node);
+        } else if (frame.mapping && MERGE_KEY.equals(frame.key)) {
+            // Keys already in the mapping win, and so do the first mappings of a merged sequence
+            if (node.isList()) {
+                node.childrenList().forEach(frame.node::mergeFrom);
+            } else {
+                frame.node.mergeFrom(node);
+            }
+        }
+
+        frame.key = null;
+        frame.hasKey = false;
+    }
+
+    private void anchor(@NotNull final NodeEvent event, @NotNull final CommentedConfigurationNode node) {
+        if (event.getAnchor() != null) {
+            anchors.put(event.getAnchor(), node);
+        }
+    }
+
+    /**
+     * Convert a scalar to the type SnakeYAML's constructor gives it: null, boolean, number or string
+     */
+    @Nullable
+    private Object resolve(@NotNull final ScalarEvent scalar) {
+        final String value = scalar.getValue();
+        final String explicit = scalar.getTag();
+        final Tag tag = explicit == null || explicit.equals("!")
+                ? resolver.resolve(NodeId.scalar, value, scalar.getImplicit().canOmitTagInPlainScalar())
+                : new Tag(explicit);
+
+        try {
+            if (tag.equals(Tag.NULL)) {
+                return null;
+            }
+
+            if (tag.equals(Tag.BOOL)) {
+                final String lowerCase = value.toLowerCase(Locale.ENGLISH);
+                return lowerCase.equals("true") || lowerCase.equals("yes") || lowerCase.equals("on");
+            }
+
+            if (tag.equals(Tag.INT)) {
+                return parseInt(value);
+            }
+
+            if (tag.equals(Tag.FLOAT)) {
+                return parseFloat(value);
+            }
+        } catch (NumberFormatException ignored) {
+            // Kept as a string, like values with a type the YAML loader doesn't know
+        }
+
+        return value;
+    }
+
+    @NotNull
+    private static Number parseInt(@NotNull final String text) {
+        String value = text.replace("_", "");
+        int sign = 1;
+
+        if (value.startsWith("-") || value.startsWith("+")) {
+            sign = value.charAt(0) == '-' ? -1 : 1;
+            value = value.substring(1);
+        }
+
+        final BigInteger number;
+
+        if (value.startsWith("0b")) {
+            number = new BigInteger(value.substring(2), 2);
+        } else if (value.startsWith("0x")) {
+            number = new BigInteger(value.substring(2), 16);
+        } else if (value.startsWith("0") && value.length() > 1) {
+            number = new BigInteger(value.substring(1), 8);
+        } else if (value.contains(":")) {
+            number = BigInteger.valueOf(parseSexagesimal(value));
+        } else {
+            number = new BigInteger(value);
+        }
+
+        final BigInteger signed = sign < 0 ? number.negate() : number;
+
+        if (signed.bitLength() < Integer.SIZE) {
+            return signed.intValue();
+        }
+
+        return signed.bitLength() < Long.SIZE ? (Number) signed.longValue() : signed;
+    }
+
+    private static double parseFloat(@NotNull final String text) {
+        final String value = text.replace("_", "").toLowerCase(Locale.ENGLISH);
+
+        switch (value) {
+            case ".inf":
+            case "+.inf":
+                return Double.POSITIVE_INFINITY;
+            case "-.inf":
+                return Double.NEGATIVE_INFINITY;
+            case ".nan":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(value);
+        }
+    }
+
+    /**
+     * Base 60 numbers of YAML 1.1, like {@code 1:30}
+     */
+    private static long parseSexagesimal(@NotNull final String value) {
+        long result = 0;
+
+        for (final String part : value.split(":")) {
+            result = result * 60 + Long.parseLong(part);
+        }
+
+        return result;
+    }
+
+    /**
+     * Mapping or sequence being read
+     */
+    private static final class Frame {
+
+        /**
+         * Node of the collection, or null for the top level collection whose entries are streamed
+         */
+        @Nullable
+        private final CommentedConfigurationNode node;
+        private final boolean mapping;
+
+        /**
+         * Key of the mapping entry whose value is being read, if {@link #hasKey}
+         */
+        @Nullable
+        private Object key;
+        private boolean hasKey;
+        /**
+         * Index of the next entry of a top level sequence
+         */
+        private int index;
+
+        private Frame(@Nullable final CommentedConfigurationNode node, final boolean mapping) {
+            this.node = node;
+            this.mapping = mapping;
+        }
+
+        private void setKey(@Nullable final Object key) {
+            this.key = key;
+            this.hasKey = true;
+        }
+
+    }
+
+}
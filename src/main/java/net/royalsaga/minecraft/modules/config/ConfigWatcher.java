@@ -0,0 +1,243 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.config;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Thread shared by all the watched {@link Config}s that waits for file system events and, once a file has been quiet for
+ * {@link #DEBOUNCE}, asks its configs to reload.
+ * The thread is started when the first config is watched and stopped when the last one is unwatched.
+ *
+ * @see Config#watch()
+ * @since 1.1.0
+ */
+final class ConfigWatcher implements Runnable {
+
+    private static final long DEBOUNCE = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private static ConfigWatcher instance;
+
+    private final WatchService service;
+    private final Thread thread;
+
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+    private final Map<Path, Set<Config>> configs = new HashMap<>();
+    /**
+     * Changed files and the {@link System#nanoTime()} after which they are reloaded
+     */
+    private final Map<Path, Long> pending = new HashMap<>();
+
+    private ConfigWatcher() throws IOException {
+        this.service = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this, "Modules Config Watcher");
+        this.thread.setDaemon(true);
+    }
+
+    static synchronized void watch(@NotNull final Config config) throws IOException {
+        if (instance == null) {
+            instance = new ConfigWatcher();
+            instance.thread.start();
+        }
+
+        instance.add(config);
+    }
+
+    static synchronized void unwatch(@NotNull final Config config) {
+        if (instance != null && instance.remove(config)) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    static synchronized void unwatchAll(@NotNull final Plugin plugin) {
+        if (instance == null) {
+            return;
+        }
+
+        final List<Config> configs = new ArrayList<>();
+        instance.configs.values().forEach(configs::addAll);
+
+        for (final Config config : configs) {
+            if (config.getModule().getPlugin() == plugin) {
+                unwatch(config);
+            }
+        }
+    }
+
+    static synchronized boolean isWatched(@NotNull final Config config) {
+        if (instance == null) {
+            return false;
+        }
+
+        final Set<Config> configs = instance.configs.get(config.getPath());
+        return configs != null && configs.contains(config);
+    }
+
+    private void add(@NotNull final Config config) throws IOException {
+        final Path file = config.getPath();
+        final Path directory = file.getParent();
+
+        if (!directories.containsKey(directory)) {
+            directories.put(directory, directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+        }
+
+        configs.computeIfAbsent(file, it -> new LinkedHashSet<>()).add(config);
+    }
+
+    /**
+     * @return true if nothing is watched anymore
+     */
+    private boolean remove(@NotNull final Config config) {
+        final Path file = config.getPath();
+        final Set<Config> watching = configs.get(file);
+
+        if (watching != null && watching.remove(config) && watching.isEmpty()) {
+            configs.remove(file);
+            pending.remove(file);
+
+            final Path directory = file.getParent();
+
+            if (configs.keySet().stream().noneMatch(it -> directory.equals(it.getParent()))) {
+                final WatchKey key = directories.remove(directory);
+
+                if (key != null) {
+                    key.cancel();
+                }
+            }
+        }
+
+        return configs.isEmpty();
+    }
+
+    private void close() {
+        thread.interrupt();
+
+        try {
+            service.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final WatchKey key = service.poll(nextTimeout(), TimeUnit.NANOSECONDS);
+
+                if (key != null) {
+                    collect(key);
+                }
+
+                for (final Config config : due()) {
+                    try {
+                        config.onFileChanged();
+                    } catch (RuntimeException e) {
+                        config.getModule().getPlugin().getLogger().log(Level.SEVERE, "Could not reload " + config.getPath(), e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Stopped by close()
+        }
+    }
+
+    private long nextTimeout() {
+        synchronized (ConfigWatcher.class) {
+            final long now = System.nanoTime();
+            long timeout = TimeUnit.SECONDS.toNanos(1);
+
+            for (final long deadline : pending.values()) {
+                timeout = Math.min(timeout, Math.max(0, deadline - now));
+            }
+
+            return timeout;
+        }
+    }
+
+    private void collect(@NotNull final WatchKey key) {
+        final Path directory = (Path) key.watchable();
+        final long deadline = System.nanoTime() + DEBOUNCE;
+
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            synchronized (ConfigWatcher.class) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    configs.keySet().stream()
+                            .filter(it -> directory.equals(it.getParent()))
+                            .forEach(it -> pending.put(it, deadline));
+                    continue;
+                }
+
+                final Path file = directory.resolve((Path) event.context());
+
+                if (configs.containsKey(file)) {
+                    pending.put(file, deadline);
+                }
+            }
+        }
+
+        key.reset();
+    }
+
+    @NotNull
+    private List<Config> due() {
+        synchronized (ConfigWatcher.class) {
+            final long now = System.nanoTime();
+            final List<Config> due = new ArrayList<>();
+            final Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator();
+
+            while (iterator.hasNext()) {
+                final Map.Entry<Path, Long> entry = iterator.next();
+
+                if (entry.getValue() - now <= 0) {
+                    iterator.remove();
+                    due.addAll(configs.getOrDefault(entry.getKey(), Collections.emptySet()));
+                }
+            }
+
+            return due;
+        }
+    }
+
+}
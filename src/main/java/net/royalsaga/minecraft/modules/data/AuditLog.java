@@ -0,0 +1,303 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.data;
+
+import net.royalsaga.minecraft.modules.exceptions.ModuleException;
+import net.royalsaga.minecraft.modules.modules.Module;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append only log of a module, like economy transactions or punishments, saved in
+ * {@code modules/<module id>/audit/<name>/}.
+ * <p>
+ * Entries are copied into a memory mapped segment file, so appending doesn't wait for the disk and can be done from
+ * any thread. Segments are preallocated to {@link #getSegmentSize()} bytes, and a new segment is started when an entry
+ * doesn't fit in the current one. Written entries are forced to the disk off the main thread every
+ * {@link #getSyncInterval() sync interval}, so a crash of the machine loses at most the entries of the last interval.
+ * <p>
+ * Each entry is its size, its timestamp, its UTF-8 message and a CRC32 of the timestamp and message. The size is
+ * written last, so {@link AuditLogReader readers} never see an entry that is not completely written.
+ *
+ * @see Module#createAuditLog(String)
+ * @since 1.1.0
+ */
+public final class AuditLog {
+
+    static final String EXTENSION = ".log";
+    /**
+     * Size and timestamp
+     */
+    static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    /**
+     * Header and checksum
+     */
+    static final int RECORD_OVERHEAD = HEADER_SIZE + Integer.BYTES;
+
+    private final Module<?> module;
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration syncInterval;
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segment;
+    private boolean dirty;
+    private BukkitTask syncTask;
+    private boolean closed = true;
+
+    /**
+     * Create a log, it can't be appended to until it's {@link #open() opened}
+     *
+     * @param module       module the log belongs to
+     * @param name         name of the folder the log is saved in, inside the module's {@code audit} folder
+     * @param segmentSize  size of each segment file, in bytes
+     * @param syncInterval time between forcing the written entries to the disk
+     * @since 1.1.0
+     */
+    public AuditLog(@NotNull final Module<?> module, @NotNull final String name, final int segmentSize, @NotNull final Duration syncInterval) {
+        if (segmentSize <= RECORD_OVERHEAD) {
+            throw new IllegalArgumentException("Segment size must be greater than " + RECORD_OVERHEAD);
+        }
+
+        this.module = module;
+        this.directory = module.getPlugin().getDataFolder().toPath().resolve("modules").resolve(module.getId()).resolve("audit").resolve(name);
+        this.segmentSize = segmentSize;
+        this.syncInterval = syncInterval;
+    }
+
+    /**
+     * Open the latest segment, appending after its last complete entry, and start forcing the written entries to the
+     * disk. {@link Module} opens its logs when it's registered and {@link #close() closes} them when it's unregistered.
+     *
+     * @throws ModuleException if the segment can't be opened
+     * @since 1.1.0
+     */
+    public synchronized void open() {
+        if (!closed) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(directory);
+
+            final List<Path> segments = getReader().getSegments();
+
+            if (segments.isEmpty()) {
+                map(1);
+            } else {
+                final String name = segments.get(segments.size() - 1).getFileName().toString();
+                map(Long.parseLong(name.substring(0, name.length() - EXTENSION.length())));
+
+                int position = 0;
+
+                for (int end; (end = AuditLogReader.next(buffer, position, crc)) != -1; ) {
+                    position = end;
+                }
+
+                buffer.position(position);
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new ModuleException("Could not open the audit log " + directory, e);
+        }
+
+        closed = false;
+
+        final long ticks = Math.max(1, syncInterval.toMillis() / 50);
+        syncTask = module.getScheduler().runTaskTimer(() -> module.getScheduler().runAsync(this::sync), ticks, ticks);
+    }
+
+    /**
+     * Append an entry with the current time
+     *
+     * @param message message
+     * @throws ModuleException if the log is closed, the message doesn't fit in a segment or a new segment can't be created
+     * @since 1.1.0
+     */
+    public void append(@NotNull final String message) {
+        append(System.currentTimeMillis(), message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private synchronized void append(final long timestamp, @NotNull final byte[] message) {
+        if (closed) {
+            throw new ModuleException("The audit log " + directory + " is closed");
+        }
+
+        final int size = RECORD_OVERHEAD + message.length;
+
+        if (size > segmentSize) {
+            throw new ModuleException("Audit log entries can't be longer than " + (segmentSize - RECORD_OVERHEAD) + " bytes");
+        }
+
+        if (buffer.remaining() < size) {
+            roll();
+        }
+
+        final int position = buffer.position();
+        buffer.position(position + Integer.BYTES);
+        buffer.putLong(timestamp);
+        buffer.put(message);
+
+        crc.reset();
+
+        for (int i = position + Integer.BYTES; i < buffer.position(); i++) {
+            crc.update(buffer.get(i));
+        }
+
+        buffer.putInt((int) crc.getValue());
+        // Size last, readers stop at an entry without size
+        buffer.putInt(position, size);
+        dirty = true;
+    }
+
+    /**
+     * Force the written entries to the disk, done every {@link #getSyncInterval() sync interval}
+     *
+     * @since 1.1.0
+     */
+    public void sync() {
+        final MappedByteBuffer buffer;
+
+        synchronized (this) {
+            if (!dirty || closed) {
+                return;
+            }
+
+            dirty = false;
+            buffer = this.buffer;
+        }
+
+        buffer.force();
+    }
+
+    /**
+     * Force the written entries to the disk and close the segment. Called when the module is unregistered, and
+     * {@link #open() opened} again if it's registered again.
+     *
+     * @since 1.1.0
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        syncTask.cancel();
+        buffer.force();
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            module.error("Could not close the audit log " + directory, e);
+        }
+
+        // The mapping is released when the buffer is garbage collected
+        buffer = null;
+        channel = null;
+    }
+
+    /**
+     * @return reader of this log's segments
+     * @since 1.1.0
+     */
+    @NotNull
+    public AuditLogReader getReader() {
+        return new AuditLogReader(directory);
+    }
+
+    /**
+     * @return size of each segment file, in bytes
+     * @since 1.1.0
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * @return time between forcing the written entries to the disk
+     * @since 1.1.0
+     */
+    @NotNull
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    /**
+     * Start a new segment, the current one is forced to the disk off the main thread
+     */
+    private void roll() {
+        final MappedByteBuffer previous = buffer;
+        final FileChannel previousChannel = channel;
+
+        try {
+            map(segment + 1);
+        } catch (IOException e) {
+            throw new ModuleException("Could not create a new segment of the audit log " + directory, e);
+        }
+
+        final Runnable release = () -> {
+            previous.force();
+
+            try {
+                previousChannel.close();
+            } catch (IOException e) {
+                module.error("Could not close a segment of the audit log " + directory, e);
+            }
+        };
+
+        if (module.getScheduler().runAsync(release).isCancelled()) {
+            // The module is being unregistered, its scheduler doesn't accept work anymore
+            release.run();
+        }
+    }
+
+    private void map(final long segment) throws IOException {
+        final Path file = directory.resolve(String.format("%020d%s", segment, EXTENSION));
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            // Mapping past the end of the file extends it to the segment size
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.channel = channel;
+        this.segment = segment;
+    }
+
+}
@@ -0,0 +1,276 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the segments of an {@link AuditLog}, which may be written at the same time. Segments are read in chunks into a
+ * heap buffer rather than mapped, so reading doesn't leave mappings behind until they're garbage collected. Reading a
+ * segment stops at the first entry that is not completely written yet, so the preallocated end of the latest segment
+ * isn't read.
+ *
+ * @since 1.1.0
+ */
+public final class AuditLogReader {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Path directory;
+
+    /**
+     * @param directory folder of the log's segments
+     * @see AuditLog#getReader()
+     * @since 1.1.0
+     */
+    public AuditLogReader(@NotNull final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Read the entries appended since a time, oldest first. Segments that only contain older entries are not read.
+     *
+     * @param from     time in milliseconds since the epoch, 0 for all the entries
+     * @param consumer consumer of the entries
+     * @throws IOException if a segment can't be read
+     * @since 1.1.0
+     */
+    public void scan(final long from, @NotNull final Consumer<AuditRecord> consumer) throws IOException {
+        final List<Path> segments = getSegments();
+        ByteBuffer buffer = null;
+
+        for (int i = 0; i < segments.size(); i++) {
+            // Entries are in time order, skip the segment if the next one starts before the time, entries at the time
+            // may be at the end of this segment
+            if (i + 1 < segments.size() && from > 0 && getFirstTimestamp(segments.get(i + 1)) < from) {
+                continue;
+            }
+
+            buffer = read(segments.get(i), buffer, it -> {
+                if (it.getTimestamp() >= from) {
+                    consumer.accept(it);
+                }
+            });
+        }
+    }
+
+    /**
+     * Read the latest entries
+     *
+     * @param count maximum number of entries
+     * @return entries, oldest first
+     * @throws IOException if a segment can't be read
+     * @since 1.1.0
+     */
+    @NotNull
+    public List<AuditRecord> tail(final int count) throws IOException {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+
+        final List<Path> segments = getSegments();
+        final Deque<AuditRecord> records = new ArrayDeque<>(count);
+        ByteBuffer buffer = null;
+
+        // Newest segment first, until enough entries are found
+        for (int i = segments.size() - 1; i >= 0 && records.size() < count; i--) {
+            final Deque<AuditRecord> segment = new ArrayDeque<>();
+
+            buffer = read(segments.get(i), buffer, it -> {
+                if (segment.size() == count - records.size()) {
+                    segment.removeFirst();
+                }
+
+                segment.addLast(it);
+            });
+
+            while (!segment.isEmpty()) {
+                records.addFirst(segment.removeLast());
+            }
+        }
+
+        return new ArrayList<>(records);
+    }
+
+    /**
+     * @return segment files, oldest first
+     */
+    @NotNull
+    List<Path> getSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            // Names are zero padded numbers, so they sort in creation order
+            return files.filter(it -> it.getFileName().toString().endsWith(AuditLog.EXTENSION)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Read the first entry of a segment only
+     *
+     * @return timestamp of the first entry, or {@link Long#MAX_VALUE} if there is none
+     */
+    private static long getFirstTimestamp(@NotNull final Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            final ByteBuffer size = ByteBuffer.allocate(Integer.BYTES);
+            readFully(channel, size);
+
+            if (size.hasRemaining()) {
+                return Long.MAX_VALUE;
+            }
+
+            final int length = size.getInt(0);
+
+            if (length < AuditLog.RECORD_OVERHEAD || length > channel.size()) {
+                return Long.MAX_VALUE;
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            channel.position(0);
+            readFully(channel, buffer);
+            buffer.flip();
+
+            return next(buffer, 0, new CRC32()) != -1 ? buffer.getLong(Integer.BYTES) : Long.MAX_VALUE;
+        } catch (NoSuchFileException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Read the entries of a segment in chunks, until the first entry that is not completely written
+     *
+     * @param buffer buffer to reuse, or null
+     * @return the buffer the segment was read into, to reuse for the next segment
+     */
+    private static ByteBuffer read(@NotNull final Path segment, final ByteBuffer buffer, @NotNull final Consumer<AuditRecord> consumer) throws IOException {
+        ByteBuffer chunk = buffer != null ? buffer : ByteBuffer.allocate(CHUNK_SIZE);
+        final CRC32 crc = new CRC32();
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            chunk.clear();
+
+            while (true) {
+                readFully(channel, chunk);
+                // Only stops before the buffer is full at the end of the segment
+                final boolean end = chunk.hasRemaining();
+                chunk.flip();
+
+                int position = 0;
+
+                for (int next; (next = next(chunk, position, crc)) != -1; position = next) {
+                    final byte[] message = new byte[next - position - AuditLog.RECORD_OVERHEAD];
+                    final ByteBuffer view = chunk.duplicate();
+                    view.position(position + AuditLog.HEADER_SIZE);
+                    view.get(message);
+
+                    consumer.accept(new AuditRecord(chunk.getLong(position + Integer.BYTES), new String(message, StandardCharsets.UTF_8)));
+                }
+
+                if (end) {
+                    return chunk;
+                }
+
+                if (chunk.limit() - position >= Integer.BYTES) {
+                    final int size = chunk.getInt(position);
+
+                    // Not written yet, or written but corrupted, rather than cut by the end of the chunk
+                    if (size < AuditLog.RECORD_OVERHEAD || size <= chunk.limit() - position || size > channel.size()) {
+                        return chunk;
+                    }
+
+                    if (size > chunk.capacity()) {
+                        // Entry larger than the buffer
+                        chunk.position(position);
+                        chunk = ByteBuffer.allocate(size).put(chunk);
+                        continue;
+                    }
+                }
+
+                chunk.position(position);
+                chunk.compact();
+            }
+        } catch (NoSuchFileException e) {
+            return chunk;
+        }
+    }
+
+    /**
+     * Read from a channel until the buffer is full or the end of the channel is reached
+     */
+    private static void readFully(@NotNull final FileChannel channel, @NotNull final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // Keep reading
+        }
+    }
+
+    /**
+     * Check the entry at a position is completely written
+     *
+     * @param buffer   segment
+     * @param position position of the entry
+     * @param crc      checksum to reuse
+     * @return position after the entry, or -1 if there is no complete entry at the position
+     */
+    static int next(@NotNull final ByteBuffer buffer, final int position, @NotNull final CRC32 crc) {
+        if (position + Integer.BYTES > buffer.limit()) {
+            return -1;
+        }
+
+        final int size = buffer.getInt(position);
+
+        if (size < AuditLog.RECORD_OVERHEAD || size > buffer.limit() - position) {
+            return -1;
+        }
+
+        final int checksum = position + size - Integer.BYTES;
+        crc.reset();
+
+        for (int i = position + Integer.BYTES; i < checksum; i++) {
+            crc.update(buffer.get(i));
+        }
+
+        return (int) crc.getValue() == buffer.getInt(checksum) ? position + size : -1;
+    }
+
+}
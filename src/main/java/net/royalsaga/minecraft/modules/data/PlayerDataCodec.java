@@ -0,0 +1,73 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Converts the data a module keeps for a player to and from the bytes saved by a {@link PlayerDataStore}
+ *
+ * @param <T> type of the player data
+ * @since 1.1.0
+ */
+public interface PlayerDataCodec<T> {
+
+    /**
+     * Create the data of a player that has none saved yet
+     *
+     * @param uuid player's uuid
+     * @return new data
+     * @since 1.1.0
+     */
+    @NotNull
+    T create(@NotNull UUID uuid);
+
+    /**
+     * Read the saved data of a player. Called off the main thread.
+     *
+     * @param uuid  player's uuid
+     * @param input saved data, as written by {@link #write(Object, DataOutput)}
+     * @return data
+     * @throws IOException if the data can't be read
+     * @since 1.1.0
+     */
+    @NotNull
+    T read(@NotNull UUID uuid, @NotNull DataInput input) throws IOException;
+
+    /**
+     * Write the data of a player. Called on the thread that flushes the store, usually the main thread.
+     *
+     * @param data   data
+     * @param output output
+     * @throws IOException if the data can't be written
+     * @since 1.1.0
+     */
+    void write(@NotNull T data, @NotNull DataOutput output) throws IOException;
+
+}
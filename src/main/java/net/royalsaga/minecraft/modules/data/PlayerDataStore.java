@@ -0,0 +1,555 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.data;
+
+import net.royalsaga.minecraft.modules.exceptions.ModuleException;
+import net.royalsaga.minecraft.modules.modules.Module;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Data a module keeps for each player, saved to one file per player in {@code modules/<module id>/<name>/}.
+ * <p>
+ * The store starts listening to players once it's {@link #open() opened}, which {@link Module} does on the main thread when
+ * the module is registered. Players are read off the main thread while they log in and added to the store when they
+ * join, and their data stays in memory until they quit. Changed
+ * data is {@link #markDirty(UUID) marked dirty} and written behind: every {@link #getFlushInterval() flush interval}
+ * the dirty data is encoded on the main thread and written to disk by the module's
+ * {@link net.royalsaga.minecraft.modules.modules.ModuleScheduler#getAsyncExecutor() thread pool}. The data of offline
+ * players, loaded with {@link #load(UUID)} or kept after they quit, is evicted when more than
+ * {@link #getOfflineCapacity()} offline players are loaded.
+ * <p>
+ * Data should only be modified on the main thread.
+ *
+ * @param <T> type of the player data
+ * @see Module#createPlayerData(String, PlayerDataCodec)
+ * @since 1.1.0
+ */
+public final class PlayerDataStore<T> {
+
+    private static final String EXTENSION = ".dat";
+    private static final String DEFAULT_KICK_MESSAGE = "Your data could not be loaded, try again later.";
+
+    private final Module<?> module;
+    private final Path directory;
+    private final PlayerDataCodec<T> codec;
+    private final Duration flushInterval;
+    private final int offlineCapacity;
+
+    private final Map<UUID, T> loaded = new ConcurrentHashMap<>();
+    /**
+     * Data read while players log in, added to {@link #loaded} on the main thread when they join
+     */
+    private final Map<UUID, T> preLoaded = new ConcurrentHashMap<>();
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
+    /**
+     * Loaded offline players, least recently used first
+     */
+    private final LinkedHashMap<UUID, Boolean> offline = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    /**
+     * Encoded data waiting to be written, read by {@link #read(UUID)} so a player loaded again before the write sees it
+     */
+    private final Map<UUID, byte[]> pendingWrites = new ConcurrentHashMap<>();
+    /**
+     * Held while writing files, so an older write never replaces a newer one
+     */
+    private final Object writeLock = new Object();
+
+    private final Listener listener = new PlayerDataListener();
+    private BukkitTask flushTask;
+    private volatile boolean closed = true;
+    private volatile String kickMessage = DEFAULT_KICK_MESSAGE;
+
+    /**
+     * Create a store, it does nothing until it's {@link #open() opened}
+     *
+     * @param module          module the data belongs to
+     * @param name            name of the folder the data is saved in, inside the module's folder
+     * @param codec           codec of the data
+     * @param flushInterval   time between writes of the dirty data
+     * @param offlineCapacity maximum number of offline players kept in memory
+     * @throws ModuleException if the folder can't be created
+     * @since 1.1.0
+     */
+    public PlayerDataStore(@NotNull final Module<?> module, @NotNull final String name, @NotNull final PlayerDataCodec<T> codec,
+                           @NotNull final Duration flushInterval, final int offlineCapacity) {
+        this.module = module;
+        this.directory = module.getPlugin().getDataFolder().toPath().resolve("modules").resolve(module.getId()).resolve(name);
+        this.codec = codec;
+        this.flushInterval = flushInterval;
+        this.offlineCapacity = Math.max(0, offlineCapacity);
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new ModuleException("Could not create " + directory, e);
+        }
+    }
+
+    /**
+     * Start listening to players and writing the dirty data, and load the online players off the main thread. Must be
+     * called on the main thread.
+     *
+     * @since 1.1.0
+     */
+    public void open() {
+        if (!closed) {
+            return;
+        }
+
+        closed = false;
+
+        final long ticks = Math.max(1, flushInterval.toMillis() / 50);
+        flushTask = module.getScheduler().runTaskTimer(this::flush, ticks, ticks);
+
+        Bukkit.getPluginManager().registerEvents(listener, module.getPlugin());
+
+        for (final Player player : Bukkit.getOnlinePlayers()) {
+            online.add(player.getUniqueId());
+            load(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Get the data of a player if it's loaded. The data of online players is loaded while they log in, or right after the
+     * store is opened.
+     *
+     * @param uuid player's uuid
+     * @return data, or null if it's not loaded
+     * @since 1.1.0
+     */
+    @Nullable
+    public T getIfLoaded(@NotNull final UUID uuid) {
+        final T data = loaded.get(uuid);
+
+        if (data != null && !online.contains(uuid)) {
+            synchronized (offline) {
+                offline.get(uuid);
+            }
+        }
+
+        return data;
+    }
+
+    /**
+     * Get the data of a player, reading it on the calling thread if it's not loaded. Must be called on the main thread,
+     * use {@link #load(UUID)} on other threads.
+     *
+     * @param uuid player's uuid
+     * @return data
+     * @throws ModuleException if the saved data can't be read
+     * @since 1.1.0
+     */
+    @NotNull
+    public T get(@NotNull final UUID uuid) {
+        final T data = getIfLoaded(uuid);
+        return data == null ? put(uuid, read(uuid)) : data;
+    }
+
+    /**
+     * Load the data of a player: the data is read off the main thread and added to the store on the main thread, so
+     * don't wait for the future on the main thread
+     *
+     * @param uuid player's uuid
+     * @return future completed with the data, or completed exceptionally with a {@link ModuleException} if the saved
+     * data can't be read
+     * @since 1.1.0
+     */
+    @NotNull
+    public CompletableFuture<T> load(@NotNull final UUID uuid) {
+        final T data = getIfLoaded(uuid);
+
+        if (data != null) {
+            return CompletableFuture.completedFuture(data);
+        }
+
+        final CompletableFuture<T> future = module.getScheduler().supplyAsync(() -> read(uuid))
+                .thenCompose(it -> module.getScheduler().supplyOnMain(() -> put(uuid, it)));
+
+        future.whenComplete((it, throwable) -> {
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+
+            // Cancelled when the module is unregistered
+            if (cause != null && !(cause instanceof CancellationException)) {
+                module.error("Could not load the data of " + uuid, cause);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Mark the data of a player as changed, so it's written on the next flush. The data of an offline player can be
+     * evicted once it's not used, changes made to evicted data are not saved: get the data again with {@link #get(UUID)}
+     * and change it again.
+     *
+     * @param uuid player's uuid
+     * @return true if the data is loaded and was marked, false if it's not loaded, or was evicted
+     * @since 1.1.0
+     */
+    public boolean markDirty(@NotNull final UUID uuid) {
+        if (!loaded.containsKey(uuid)) {
+            return false;
+        }
+
+        dirty.add(uuid);
+        return true;
+    }
+
+    /**
+     * Encode the dirty data on the calling thread and write it off the main thread
+     *
+     * @return future completed once the data is written
+     * @since 1.1.0
+     */
+    @NotNull
+    public CompletableFuture<Void> flush() {
+        final List<UUID> batch = encodeDirty();
+
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return module.getScheduler().runAsync(() -> write(batch));
+    }
+
+    /**
+     * Stop listening to players, write all the dirty data on the calling thread and unload it. Called when the module is
+     * unregistered, and {@link #open() opened} again if it's registered again.
+     *
+     * @since 1.1.0
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        HandlerList.unregisterAll(listener);
+        flushTask.cancel();
+
+        encodeDirty();
+        write(new ArrayList<>(pendingWrites.keySet()));
+
+        loaded.clear();
+        preLoaded.clear();
+        online.clear();
+
+        synchronized (offline) {
+            offline.clear();
+        }
+    }
+
+    /**
+     * @return number of players whose data is loaded
+     * @since 1.1.0
+     */
+    public int getLoadedCount() {
+        return loaded.size();
+    }
+
+    /**
+     * @return time between writes of the dirty data
+     * @since 1.1.0
+     */
+    @NotNull
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * @return maximum number of offline players kept in memory
+     * @since 1.1.0
+     */
+    public int getOfflineCapacity() {
+        return offlineCapacity;
+    }
+
+    /**
+     * @return message players are kicked with when their data can't be loaded while they log in
+     * @since 1.1.0
+     */
+    @NotNull
+    public String getKickMessage() {
+        return kickMessage;
+    }
+
+    /**
+     * @param kickMessage message players are kicked with when their data can't be loaded while they log in
+     * @since 1.1.0
+     */
+    public void setKickMessage(@NotNull final String kickMessage) {
+        this.kickMessage = kickMessage;
+    }
+
+    /**
+     * Add loaded data, keeping the data that was loaded first if another thread loaded the same player
+     */
+    @NotNull
+    private T put(@NotNull final UUID uuid, @NotNull final T data) {
+        final T previous = loaded.putIfAbsent(uuid, data);
+
+        if (previous != null) {
+            return previous;
+        }
+
+        if (!online.contains(uuid)) {
+            addOffline(uuid);
+        }
+
+        return data;
+    }
+
+    private void addOffline(@NotNull final UUID uuid) {
+        final List<UUID> evicted = new ArrayList<>();
+
+        synchronized (offline) {
+            offline.put(uuid, Boolean.TRUE);
+
+            final Iterator<UUID> iterator = offline.keySet().iterator();
+
+            while (offline.size() > offlineCapacity && iterator.hasNext()) {
+                evicted.add(iterator.next());
+                iterator.remove();
+            }
+        }
+
+        if (evicted.isEmpty()) {
+            return;
+        }
+
+        final List<UUID> batch = new ArrayList<>();
+
+        for (final UUID it : evicted) {
+            final T data = loaded.remove(it);
+            // Older than the evicted data, read again if the player joins
+            preLoaded.remove(it);
+
+            if (data != null && dirty.remove(it)) {
+                pendingWrites.put(it, encode(it, data));
+                batch.add(it);
+            }
+        }
+
+        if (!batch.isEmpty() && !closed) {
+            module.getScheduler().runAsync(() -> write(batch));
+        }
+    }
+
+    @NotNull
+    private T read(@NotNull final UUID uuid) {
+        try {
+            byte[] bytes = pendingWrites.get(uuid);
+
+            if (bytes == null) {
+                try {
+                    bytes = Files.readAllBytes(getFile(uuid));
+                } catch (NoSuchFileException e) {
+                    return codec.create(uuid);
+                }
+            }
+
+            return codec.read(uuid, new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new ModuleException("Could not read the data of " + uuid, e);
+        }
+    }
+
+    /**
+     * @return players whose data was encoded to {@link #pendingWrites}
+     */
+    @NotNull
+    private List<UUID> encodeDirty() {
+        final List<UUID> batch = new ArrayList<>();
+
+        for (final Iterator<UUID> iterator = dirty.iterator(); iterator.hasNext(); ) {
+            final UUID uuid = iterator.next();
+            iterator.remove();
+
+            final T data = loaded.get(uuid);
+
+            if (data != null) {
+                pendingWrites.put(uuid, encode(uuid, data));
+                batch.add(uuid);
+            }
+        }
+
+        return batch;
+    }
+
+    @NotNull
+    private byte[] encode(@NotNull final UUID uuid, @NotNull final T data) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (final DataOutputStream output = new DataOutputStream(bytes)) {
+            codec.write(data, output);
+        } catch (IOException e) {
+            throw new ModuleException("Could not write the data of " + uuid, e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Write the latest encoded data of players
+     */
+    private void write(@NotNull final List<UUID> batch) {
+        synchronized (writeLock) {
+            for (final UUID uuid : batch) {
+                final byte[] bytes = pendingWrites.get(uuid);
+
+                if (bytes == null) {
+                    continue;
+                }
+
+                try {
+                    writeFile(getFile(uuid), bytes);
+                    pendingWrites.remove(uuid, bytes);
+                } catch (IOException e) {
+                    // Kept in pendingWrites, written again with the next change
+                    module.error("Could not save the data of " + uuid, e);
+                }
+            }
+        }
+    }
+
+    private static void writeFile(@NotNull final Path file, @NotNull final byte[] bytes) throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            Files.write(temp, bytes);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @NotNull
+    private Path getFile(@NotNull final UUID uuid) {
+        return directory.resolve(uuid + EXTENSION);
+    }
+
+    private final class PlayerDataListener implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPreLogin(final AsyncPlayerPreLoginEvent event) {
+            if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+                return;
+            }
+
+            final UUID uuid = event.getUniqueId();
+
+            if (loaded.containsKey(uuid)) {
+                return;
+            }
+
+            // Only read here, the data is added to the store on the main thread when the player joins
+            try {
+                preLoaded.put(uuid, read(uuid));
+            } catch (ModuleException e) {
+                module.error("Could not load the data of " + event.getName(), e);
+                event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, kickMessage);
+            }
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onLogin(final PlayerLoginEvent event) {
+            if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+                preLoaded.remove(event.getPlayer().getUniqueId());
+            }
+        }
+
+        @EventHandler(priority = EventPriority.LOWEST)
+        public void onJoin(final PlayerJoinEvent event) {
+            final UUID uuid = event.getPlayer().getUniqueId();
+            online.add(uuid);
+
+            synchronized (offline) {
+                offline.remove(uuid);
+            }
+
+            final T data = preLoaded.remove(uuid);
+
+            if (data != null) {
+                loaded.putIfAbsent(uuid, data);
+            } else if (!loaded.containsKey(uuid)) {
+                // Store opened while the player was logging in, or the data was evicted since
+                load(uuid);
+            }
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onQuit(final PlayerQuitEvent event) {
+            final UUID uuid = event.getPlayer().getUniqueId();
+            online.remove(uuid);
+
+            if (loaded.containsKey(uuid)) {
+                addOffline(uuid);
+            }
+        }
+
+    }
+
+}
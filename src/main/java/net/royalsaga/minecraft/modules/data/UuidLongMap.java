@@ -0,0 +1,598 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread safe map of {@link UUID}s to primitive longs, for per-player counters and gauges without boxing. Keys and values
+ * are stored in open addressing {@code long} arrays split in stripes with their own lock, so updates of different
+ * players rarely contend and reads usually take no lock at all. Absent keys have the value 0.
+ *
+ * @see net.royalsaga.minecraft.modules.modules.Module#createCounters(String)
+ * @since 1.1.0
+ */
+public final class UuidLongMap {
+
+    private static final int MAGIC = 0x55554C4D;
+    private static final byte VERSION = 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+
+    /**
+     * Create a map with a stripe per 2 available processors, at least 16
+     *
+     * @since 1.1.0
+     */
+    public UuidLongMap() {
+        this(Math.max(16, Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    /**
+     * @param concurrency expected number of threads updating the map at once, rounded up to a power of two
+     * @since 1.1.0
+     */
+    public UuidLongMap(final int concurrency) {
+        final int count = Integer.highestOneBit(Math.max(1, concurrency - 1) << 1);
+        this.stripes = new Stripe[count];
+
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * @param uuid uuid
+     * @return value, or 0 if the uuid has none
+     * @since 1.1.0
+     */
+    public long get(@NotNull final UUID uuid) {
+        final long most = uuid.getMostSignificantBits();
+        final long least = uuid.getLeastSignificantBits();
+        final int hash = hash(most, least);
+        final Stripe stripe = stripe(hash);
+
+        long stamp = stripe.lock.tryOptimisticRead();
+        long value = stripe.get(most, least, hash);
+
+        if (!stripe.lock.validate(stamp)) {
+            stamp = stripe.lock.readLock();
+
+            try {
+                value = stripe.get(most, least, hash);
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * @param uuid uuid
+     * @return true if the uuid has a value, even 0
+     * @since 1.1.0
+     */
+    public boolean containsKey(@NotNull final UUID uuid) {
+        final long most = uuid.getMostSignificantBits();
+        final long least = uuid.getLeastSignificantBits();
+        final int hash = hash(most, least);
+        final Stripe stripe = stripe(hash);
+        final long stamp = stripe.lock.readLock();
+
+        try {
+            return stripe.indexOf(most, least, hash) != Stripe.ABSENT;
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Add to the value of a uuid, like a counter
+     *
+     * @param uuid  uuid
+     * @param delta amount to add, may be negative
+     * @return new value
+     * @since 1.1.0
+     */
+    public long add(@NotNull final UUID uuid, final long delta) {
+        final long most = uuid.getMostSignificantBits();
+        final long least = uuid.getLeastSignificantBits();
+        final int hash = hash(most, least);
+        final Stripe stripe = stripe(hash);
+        final long stamp = stripe.lock.writeLock();
+
+        try {
+            return stripe.add(most, least, hash, delta);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Add 1 to the value of a uuid
+     *
+     * @param uuid uuid
+     * @return new value
+     * @since 1.1.0
+     */
+    public long increment(@NotNull final UUID uuid) {
+        return add(uuid, 1);
+    }
+
+    /**
+     * Set the value of a uuid, like a gauge
+     *
+     * @param uuid  uuid
+     * @param value value
+     * @return previous value, or 0 if the uuid had none
+     * @since 1.1.0
+     */
+    public long put(@NotNull final UUID uuid, final long value) {
+        final long most = uuid.getMostSignificantBits();
+        final long least = uuid.getLeastSignificantBits();
+        return put(most, least, hash(most, least), value);
+    }
+
+    private long put(final long most, final long least, final int hash, final long value) {
+        final Stripe stripe = stripe(hash);
+        final long stamp = stripe.lock.writeLock();
+
+        try {
+            return stripe.put(most, least, hash, value);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param uuid uuid
+     * @return removed value, or 0 if the uuid had none
+     * @since 1.1.0
+     */
+    public long remove(@NotNull final UUID uuid) {
+        final long most = uuid.getMostSignificantBits();
+        final long least = uuid.getLeastSignificantBits();
+        final int hash = hash(most, least);
+        final Stripe stripe = stripe(hash);
+        final long stamp = stripe.lock.writeLock();
+
+        try {
+            return stripe.remove(most, least, hash);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return number of uuids with a value, which may be outdated by the time it's returned if the map is being updated
+     * @since 1.1.0
+     */
+    public int size() {
+        int size = 0;
+
+        for (final Stripe stripe : stripes) {
+            final long stamp = stripe.lock.readLock();
+
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Remove all the values
+     *
+     * @since 1.1.0
+     */
+    public void clear() {
+        for (final Stripe stripe : stripes) {
+            final long stamp = stripe.lock.writeLock();
+
+            try {
+                stripe.clear();
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Visit all the values, one stripe at a time, so each stripe is consistent but values of other stripes can change
+     * while visiting. The visitor must not update this map.
+     *
+     * @param visitor visitor
+     * @since 1.1.0
+     */
+    public void forEach(@NotNull final Visitor visitor) {
+        for (final Stripe stripe : stripes) {
+            final long stamp = stripe.lock.readLock();
+
+            try {
+                stripe.forEach(visitor);
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Write all the values to a file, replacing it atomically. The map can be updated while it's written.
+     *
+     * @param file file
+     * @throws IOException if the file can't be written
+     * @since 1.1.0
+     */
+    public void writeTo(@NotNull final Path file) throws IOException {
+        // Unique, so concurrent writes of the same file don't write into each other's temporary file
+        final Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", ".tmp");
+
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+
+            for (final Stripe stripe : stripes) {
+                final long stamp = stripe.lock.readLock();
+
+                try {
+                    output.writeInt(stripe.size);
+                    stripe.write(output);
+                } finally {
+                    stripe.lock.unlockRead(stamp);
+                }
+            }
+
+            output.writeInt(-1);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Put the values of a file written by {@link #writeTo(Path)}, replacing the values of the same uuids
+     *
+     * @param file file
+     * @throws IOException if the file can't be read or was not written by this class
+     * @since 1.1.0
+     */
+    public void readFrom(@NotNull final Path file) throws IOException {
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readByte() != VERSION) {
+                throw new IOException(file + " is not a counter snapshot");
+            }
+
+            for (int count = input.readInt(); count != -1; count = input.readInt()) {
+                for (int i = 0; i < count; i++) {
+                    final long most = input.readLong();
+                    final long least = input.readLong();
+                    put(most, least, hash(most, least), input.readLong());
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private Stripe stripe(final int hash) {
+        // High bits pick the stripe, low bits the slot inside it
+        return stripes[(hash >>> 16) & (stripes.length - 1)];
+    }
+
+    private static int hash(final long most, final long least) {
+        long hash = most ^ least;
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (hash ^ (hash >>> 33));
+    }
+
+    /**
+     * Receives the values of a {@link UuidLongMap} without creating {@link UUID} objects
+     *
+     * @since 1.1.0
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * @param mostSigBits  most significant bits of the uuid
+         * @param leastSigBits least significant bits of the uuid
+         * @param value        value
+         * @since 1.1.0
+         */
+        void visit(long mostSigBits, long leastSigBits, long value);
+
+    }
+
+    /**
+     * Open addressing table with linear probing. The nil uuid, whose bits are all 0 like an empty slot, is kept apart.
+     */
+    private static final class Stripe {
+
+        private static final int ABSENT = -1;
+        private static final int NIL = -2;
+
+        private final StampedLock lock = new StampedLock();
+
+        /**
+         * Most and least significant bits of each slot's uuid, one after the other
+         */
+        private long[] keys = new long[INITIAL_CAPACITY * 2];
+        private long[] values = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private boolean hasNil;
+        private long nilValue;
+
+        /**
+         * May run without the lock, the caller validates the result. Probing is bounded so a concurrent resize can't make
+         * it loop forever.
+         */
+        private long get(final long most, final long least, final int hash) {
+            if (most == 0 && least == 0) {
+                return hasNil ? nilValue : 0;
+            }
+
+            final long[] keys = this.keys;
+            final long[] values = this.values;
+
+            if (keys.length != values.length * 2) {
+                // Arrays of different resizes, the caller's validation fails
+                return 0;
+            }
+
+            final int mask = values.length - 1;
+            int slot = hash & mask;
+
+            for (int probes = 0; probes <= mask; probes++, slot = (slot + 1) & mask) {
+                final long slotMost = keys[slot * 2];
+                final long slotLeast = keys[slot * 2 + 1];
+
+                if (slotMost == most && slotLeast == least) {
+                    return values[slot];
+                }
+
+                if (slotMost == 0 && slotLeast == 0) {
+                    return 0;
+                }
+            }
+
+            return 0;
+        }
+
+        private int indexOf(final long most, final long least, final int hash) {
+            if (most == 0 && least == 0) {
+                return hasNil ? NIL : ABSENT;
+            }
+
+            final int mask = values.length - 1;
+
+            for (int slot = hash & mask; !isEmpty(slot); slot = (slot + 1) & mask) {
+                if (keys[slot * 2] == most && keys[slot * 2 + 1] == least) {
+                    return slot;
+                }
+            }
+
+            return ABSENT;
+        }
+
+        private long add(final long most, final long least, final int hash, final long delta) {
+            final int index = indexOf(most, least, hash);
+
+            if (index == NIL) {
+                return nilValue += delta;
+            }
+
+            if (index != ABSENT) {
+                return values[index] += delta;
+            }
+
+            insert(most, least, hash, delta);
+            return delta;
+        }
+
+        private long put(final long most, final long least, final int hash, final long value) {
+            final int index = indexOf(most, least, hash);
+
+            if (index == NIL) {
+                final long previous = nilValue;
+                nilValue = value;
+                return previous;
+            }
+
+            if (index != ABSENT) {
+                final long previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+
+            insert(most, least, hash, value);
+            return 0;
+        }
+
+        private void insert(final long most, final long least, final int hash, final long value) {
+            if (most == 0 && least == 0) {
+                hasNil = true;
+                nilValue = value;
+                size++;
+                return;
+            }
+
+            // Keep the load factor at or below 0.5 so probe sequences stay short
+            if ((size + 1) * 2 > values.length) {
+                resize();
+            }
+
+            final int mask = values.length - 1;
+            int slot = hash & mask;
+
+            while (!isEmpty(slot)) {
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot * 2] = most;
+            keys[slot * 2 + 1] = least;
+            values[slot] = value;
+            size++;
+        }
+
+        private long remove(final long most, final long least, final int hash) {
+            final int index = indexOf(most, least, hash);
+
+            if (index == ABSENT) {
+                return 0;
+            }
+
+            size--;
+
+            if (index == NIL) {
+                hasNil = false;
+                final long previous = nilValue;
+                nilValue = 0;
+                return previous;
+            }
+
+            final long previous = values[index];
+            final int mask = values.length - 1;
+            int empty = index;
+
+            // Shift back the following entries of the probe sequence, so lookups never stop early at the removed slot
+            for (int slot = (index + 1) & mask; !isEmpty(slot); slot = (slot + 1) & mask) {
+                final int home = hash(keys[slot * 2], keys[slot * 2 + 1]) & mask;
+
+                if (((slot - home) & mask) >= ((slot - empty) & mask)) {
+                    move(slot, empty);
+                    empty = slot;
+                }
+            }
+
+            keys[empty * 2] = 0;
+            keys[empty * 2 + 1] = 0;
+            values[empty] = 0;
+            return previous;
+        }
+
+        private void move(final int from, final int to) {
+            keys[to * 2] = keys[from * 2];
+            keys[to * 2 + 1] = keys[from * 2 + 1];
+            values[to] = values[from];
+        }
+
+        private void resize() {
+            final long[] oldKeys = keys;
+            final long[] oldValues = values;
+            final int capacity = oldValues.length * 2;
+            final int mask = capacity - 1;
+
+            final long[] keys = new long[capacity * 2];
+            final long[] values = new long[capacity];
+
+            for (int i = 0; i < oldValues.length; i++) {
+                final long most = oldKeys[i * 2];
+                final long least = oldKeys[i * 2 + 1];
+
+                if (most == 0 && least == 0) {
+                    continue;
+                }
+
+                int slot = hash(most, least) & mask;
+
+                while (keys[slot * 2] != 0 || keys[slot * 2 + 1] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[slot * 2] = most;
+                keys[slot * 2 + 1] = least;
+                values[slot] = oldValues[i];
+            }
+
+            this.keys = keys;
+            this.values = values;
+        }
+
+        private void clear() {
+            keys = new long[INITIAL_CAPACITY * 2];
+            values = new long[INITIAL_CAPACITY];
+            size = 0;
+            hasNil = false;
+            nilValue = 0;
+        }
+
+        private void forEach(@NotNull final Visitor visitor) {
+            if (hasNil) {
+                visitor.visit(0, 0, nilValue);
+            }
+
+            for (int slot = 0; slot < values.length; slot++) {
+                if (!isEmpty(slot)) {
+                    visitor.visit(keys[slot * 2], keys[slot * 2 + 1], values[slot]);
+                }
+            }
+        }
+
+        private void write(@NotNull final DataOutputStream output) throws IOException {
+            if (hasNil) {
+                output.writeLong(0);
+                output.writeLong(0);
+                output.writeLong(nilValue);
+            }
+
+            for (int slot = 0; slot < values.length; slot++) {
+                if (!isEmpty(slot)) {
+                    output.writeLong(keys[slot * 2]);
+                    output.writeLong(keys[slot * 2 + 1]);
+                    output.writeLong(values[slot]);
+                }
+            }
+        }
+
+        private boolean isEmpty(final int slot) {
+            return keys[slot * 2] == 0 && keys[slot * 2 + 1] == 0;
+        }
+
+    }
+
+}
@@ -38,4 +38,13 @@ public class ModuleException extends RuntimeException {
         super(message);
     }
 
+    /**
+     * @param message message
+     * @param cause   error that caused this exception
+     * @since 1.1.0
+     */
+    public ModuleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
 }
@@ -0,0 +1,225 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe histogram of durations in nanoseconds with log-linear buckets, like HdrHistogram: each power of two is split
+ * in {@value #SUB_BUCKETS} buckets, so percentiles are accurate to about 3%. Recording a value is a couple of atomic
+ * increments and doesn't allocate.
+ *
+ * <p>Durations longer than {@link #getHighestTrackableValue()} are counted as that value.</p>
+ *
+ * @see ModuleMetrics
+ * @since 1.1.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Highest bit of the highest trackable value, 2^36 ns is a bit more than a minute
+     */
+    private static final int HIGHEST_BIT = 36;
+    private static final long HIGHEST_TRACKABLE_VALUE = (1L << HIGHEST_BIT) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(HIGHEST_TRACKABLE_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a duration
+     *
+     * @param nanos duration in nanoseconds, negative durations are ignored
+     * @since 1.1.0
+     */
+    public void record(final long nanos) {
+        record(nanos, 1);
+    }
+
+    /**
+     * Record the same duration many times
+     *
+     * @param nanos duration in nanoseconds, negative durations are ignored
+     * @param times number of times the duration is recorded
+     * @since 1.1.0
+     */
+    public void record(final long nanos, final long times) {
+        if (nanos < 0 || times < 1) {
+            return;
+        }
+
+        final long value = Math.min(nanos, HIGHEST_TRACKABLE_VALUE);
+
+        counts.addAndGet(index(value), times);
+        count.add(times);
+        sum.add(value * times);
+
+        long current = max.get();
+
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since a {@link System#nanoTime()}
+     *
+     * @param start value of {@link System#nanoTime()} when the measured operation started
+     * @since 1.1.0
+     */
+    public void recordSince(final long start) {
+        record(System.nanoTime() - start);
+    }
+
+    /**
+     * @return number of recorded durations
+     * @since 1.1.0
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return sum of the recorded durations, in nanoseconds
+     * @since 1.1.0
+     */
+    public long getTotal() {
+        return sum.sum();
+    }
+
+    /**
+     * @return mean of the recorded durations, in nanoseconds, or 0 if nothing was recorded
+     * @since 1.1.0
+     */
+    public double getMean() {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) getTotal() / count;
+    }
+
+    /**
+     * @return longest recorded duration, in nanoseconds
+     * @since 1.1.0
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the duration that a percentage of the recorded durations are shorter than or equal to
+     *
+     * @param percentile percentile, between 0 and 100
+     * @return highest duration of the bucket containing the percentile, in nanoseconds, or 0 if nothing was recorded
+     * @since 1.1.0
+     */
+    public long getPercentile(final double percentile) {
+        final long[] counts = new long[this.counts.length()];
+        long total = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.counts.get(i);
+            total += counts[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        final long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= target) {
+                return Math.min(highestValue(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Remove all the recorded durations
+     *
+     * @since 1.1.0
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * @return longest duration that can be recorded, in nanoseconds
+     * @since 1.1.0
+     */
+    public static long getHighestTrackableValue() {
+        return HIGHEST_TRACKABLE_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms",
+                getCount(), getMean() / 1_000_000, toMillis(getPercentile(50)), toMillis(getPercentile(99)), toMillis(getMax()));
+    }
+
+    private static double toMillis(final long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKETS} have their own bucket, higher values share a bucket with the values that have the
+     * same highest bit and the same {@link #SUB_BUCKET_BITS} bits after it
+     */
+    private static int index(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = highestBit - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long highestValue(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+}
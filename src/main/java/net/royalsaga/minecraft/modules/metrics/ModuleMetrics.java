@@ -0,0 +1,171 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time spent by a module in each of the entry points {@link net.royalsaga.minecraft.modules.modules.ModuleManager}
+ * registers for it. Metrics are kept when the module is reloaded.
+ *
+ * @see net.royalsaga.minecraft.modules.modules.ModuleManager#getMetrics(String)
+ * @since 1.1.0
+ */
+public final class ModuleMetrics {
+
+    private final String id;
+
+    private final LatencyHistogram events = new LatencyHistogram();
+    private final LatencyHistogram commands = new LatencyHistogram();
+    private final LatencyHistogram placeholders = new LatencyHistogram();
+    private final LatencyHistogram placeholderBatches = new LatencyHistogram();
+    private final LatencyHistogram asyncEvents = new LatencyHistogram();
+    private final LongAdder droppedAsyncEvents = new LongAdder();
+    private final LatencyHistogram asyncCommands = new LatencyHistogram();
+    private final LongAdder timedOutAsyncCommands = new LongAdder();
+
+    public ModuleMetrics(@NotNull final String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return module id
+     * @since 1.1.0
+     */
+    @NotNull
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return time spent in the module's event handlers
+     * @since 1.1.0
+     */
+    @NotNull
+    public LatencyHistogram getEvents() {
+        return events;
+    }
+
+    /**
+     * @return time spent executing and tab completing the module's commands
+     * @since 1.1.0
+     */
+    @NotNull
+    public LatencyHistogram getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return time spent parsing the module's placeholders
+     * @since 1.1.0
+     */
+    @NotNull
+    public LatencyHistogram getPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * @return time spent parsing each placeholder of the module's batches, a batch of {@code n} placeholders is recorded
+     * as {@code n} durations of the batch's average
+     * @see net.royalsaga.minecraft.modules.modules.ModuleManager#parsePlaceholders(java.util.Collection, java.util.Collection)
+     * @since 1.1.0
+     */
+    @NotNull
+    public LatencyHistogram getPlaceholderBatches() {
+        return placeholderBatches;
+    }
+
+    /**
+     * @return time spent running the tasks of the module's
+     * {@link net.royalsaga.minecraft.modules.annotations.AsyncEventHandler async event handlers}, off the main thread
+     * @since 1.1.0
+     */
+    @NotNull
+    public LatencyHistogram getAsyncEvents() {
+        return asyncEvents;
+    }
+
+    /**
+     * @return number of async event handler tasks dropped because the module's queue was full
+     * @since 1.1.0
+     */
+    public long getDroppedAsyncEvents() {
+        return droppedAsyncEvents.sum();
+    }
+
+    /**
+     * Count an async event handler task dropped because the module's queue was full
+     *
+     * @since 1.1.0
+     */
+    public void incrementDroppedAsyncEvents() {
+        droppedAsyncEvents.increment();
+    }
+
+    /**
+     * @return time spent running the module's {@link net.royalsaga.minecraft.modules.annotations.AsyncCommand async commands},
+     * off the main thread
+     * @since 1.1.0
+     */
+    @NotNull
+    public LatencyHistogram getAsyncCommands() {
+        return asyncCommands;
+    }
+
+    /**
+     * @return number of async commands interrupted because they timed out
+     * @since 1.1.0
+     */
+    public long getTimedOutAsyncCommands() {
+        return timedOutAsyncCommands.sum();
+    }
+
+    /**
+     * Count an async command interrupted because it timed out
+     *
+     * @since 1.1.0
+     */
+    public void incrementTimedOutAsyncCommands() {
+        timedOutAsyncCommands.increment();
+    }
+
+    /**
+     * Reset all the histograms and counters
+     *
+     * @since 1.1.0
+     */
+    public void reset() {
+        events.reset();
+        commands.reset();
+        placeholders.reset();
+        placeholderBatches.reset();
+        asyncEvents.reset();
+        droppedAsyncEvents.reset();
+        asyncCommands.reset();
+        timedOutAsyncCommands.reset();
+    }
+
+}
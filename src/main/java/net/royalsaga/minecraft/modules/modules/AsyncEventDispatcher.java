@@ -0,0 +1,102 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import net.royalsaga.minecraft.modules.metrics.ModuleMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded executor running the tasks returned by the {@link net.royalsaga.minecraft.modules.annotations.AsyncEventHandler}s
+ * of a module. Tasks that don't fit in the queue are dropped instead of blocking the thread that fired the event.
+ * @see ModuleEventExecutor
+ * @see ModuleScheduler
+ * @since 1.1.0
+ */
+final class AsyncEventDispatcher {
+
+    /**
+     * Minimum time between two dropped task warnings
+     */
+    private static final long WARNING_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final Module<?> module;
+    private final ModuleMetrics metrics;
+    private final ThreadPoolExecutor executor;
+
+    private volatile long lastWarning = System.nanoTime() - WARNING_INTERVAL;
+
+    AsyncEventDispatcher(@NotNull final Module<?> module, @NotNull final ModuleMetrics metrics, final int threads, final int capacity) {
+        this.module = module;
+        this.metrics = metrics;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity),
+                module.getScheduler().newThreadFactory("Async Events"));
+    }
+
+    void execute(@NotNull final Runnable task) {
+        try {
+            executor.execute(() -> {
+                final long start = System.nanoTime();
+
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    module.error("Error in async event handler", e);
+                } finally {
+                    metrics.getAsyncEvents().recordSince(start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            metrics.incrementDroppedAsyncEvents();
+
+            final long now = System.nanoTime();
+
+            if (!executor.isShutdown() && now - lastWarning >= WARNING_INTERVAL) {
+                lastWarning = now;
+                module.warn(String.format("Async event queue is full, dropped %d events so far", metrics.getDroppedAsyncEvents()));
+            }
+        }
+    }
+
+    /**
+     * Stop accepting tasks, the queued tasks still run
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Wait for the queued tasks to run after {@link #shutdown()}
+     * @param timeout maximum time to wait, in nanoseconds
+     * @return true if all the tasks ran
+     */
+    boolean awaitTermination(final long timeout) throws InterruptedException {
+        return executor.awaitTermination(timeout, TimeUnit.NANOSECONDS);
+    }
+
+}
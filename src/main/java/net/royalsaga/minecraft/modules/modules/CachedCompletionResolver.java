@@ -0,0 +1,192 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import me.mattstudios.mf.base.components.CompletionResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CompletionResolver} that keeps the candidates of another resolver sorted by their lower case form, and returns
+ * the ones starting with the argument being completed with a binary search instead of filtering the whole list.
+ * Candidates are resolved again after the TTL or after {@link #invalidate()}.
+ * <p>
+ * The argument being completed is only known for commands registered by {@link ModuleManager}, other commands, and
+ * completions of an empty argument, get all the candidates in the order the resolver returned them.
+ *
+ * @see CommandModule#getCompletionCacheTtl()
+ * @since 1.1.0
+ */
+public final class CachedCompletionResolver implements CompletionResolver {
+
+    /**
+     * Argument being completed, set by {@link TimedCommand#tabComplete} while the command completes
+     */
+    private static final ThreadLocal<String> PREFIX = new ThreadLocal<>();
+    private static final Object NO_INPUT = new Object();
+
+    private final CompletionResolver resolver;
+    private final long ttl;
+    /**
+     * Candidates by resolver input, the value after the completion id as in {@code #range:1-10}
+     */
+    private final Map<Object, Candidates> candidates = new ConcurrentHashMap<>();
+
+    /**
+     * @param resolver resolver whose candidates are cached
+     * @param ttl      time after which the candidates are resolved again, {@link Duration#ZERO} to keep them until
+     *                 {@link #invalidate()}
+     * @since 1.1.0
+     */
+    public CachedCompletionResolver(@NotNull final CompletionResolver resolver, @NotNull final Duration ttl) {
+        this.resolver = resolver;
+        this.ttl = ttl.toNanos();
+    }
+
+    @Override
+    public List<String> resolve(@Nullable final Object input) {
+        final Object key = input == null ? NO_INPUT : input;
+        final long now = System.nanoTime();
+        Candidates candidates = this.candidates.get(key);
+
+        if (candidates == null || (ttl > 0 && now - candidates.time >= ttl)) {
+            candidates = new Candidates(resolver.resolve(input), now);
+            this.candidates.put(key, candidates);
+        }
+
+        final String prefix = PREFIX.get();
+        return prefix == null || prefix.isEmpty() ? candidates.original : candidates.startingWith(prefix.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Resolve the candidates again on the next completion
+     *
+     * @since 1.1.0
+     */
+    public void invalidate() {
+        candidates.clear();
+    }
+
+    /**
+     * @return the resolver whose candidates are cached
+     * @since 1.1.0
+     */
+    @NotNull
+    public CompletionResolver getResolver() {
+        return resolver;
+    }
+
+    static void setPrefix(@Nullable final String prefix) {
+        if (prefix == null) {
+            PREFIX.remove();
+        } else {
+            PREFIX.set(prefix);
+        }
+    }
+
+    private static final class Candidates {
+
+        /**
+         * Lower case candidates, sorted
+         */
+        private final String[] keys;
+        /**
+         * Candidates in the order of their {@link #keys}
+         */
+        private final List<String> sorted;
+        /**
+         * Candidates in the order the resolver returned them
+         */
+        private final List<String> original;
+        private final long time;
+
+        private Candidates(@Nullable final List<String> candidates, final long time) {
+            final String[] values = candidates == null ? new String[0] : candidates.toArray(new String[0]);
+            final String[] keys = new String[values.length];
+            final Integer[] order = new Integer[values.length];
+
+            for (int i = 0; i < values.length; i++) {
+                keys[i] = values[i].toLowerCase(Locale.ENGLISH);
+                order[i] = i;
+            }
+
+            Arrays.sort(order, Comparator.comparing(it -> keys[it]));
+
+            this.keys = new String[values.length];
+            final String[] sorted = new String[values.length];
+
+            for (int i = 0; i < order.length; i++) {
+                this.keys[i] = keys[order[i]];
+                sorted[i] = values[order[i]];
+            }
+
+            this.sorted = Collections.unmodifiableList(Arrays.asList(sorted));
+            this.original = Collections.unmodifiableList(Arrays.asList(values));
+            this.time = time;
+        }
+
+        @NotNull
+        private List<String> startingWith(@NotNull final String prefix) {
+            final int from = lowerBound(prefix);
+            int to = from;
+
+            while (to < keys.length && keys[to].startsWith(prefix)) {
+                to++;
+            }
+
+            return sorted.subList(from, to);
+        }
+
+        /**
+         * @return index of the first key greater than or equal to the prefix
+         */
+        private int lowerBound(@NotNull final String prefix) {
+            int low = 0;
+            int high = keys.length;
+
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+
+                if (keys[middle].compareTo(prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link EventExecutor} of a {@link net.royalsaga.minecraft.modules.annotations.CoalescedEventHandler}, collects the events
+ * and passes them to the handler's {@link ModuleEventExecutor} when {@link ModuleManager} flushes it once per tick
+ * @since 1.1.0
+ */
+final class CoalescingEventExecutor implements EventExecutor {
+
+    private final Module<?> module;
+    private final Listener listener;
+    private final Class<? extends Event> eventClass;
+    private final ModuleEventExecutor executor;
+    private final EventReducer<Event> reducer;
+
+    /**
+     * Folded events by player uuid, entity uuid or event class. Async events can be collected off the main thread.
+     */
+    private Map<Object, Event> pending = new LinkedHashMap<>();
+
+    CoalescingEventExecutor(@NotNull final Module<?> module, @NotNull final Listener listener, @NotNull final Class<? extends Event> eventClass,
+                            @NotNull final ModuleEventExecutor executor, @NotNull final EventReducer<Event> reducer) {
+        this.module = module;
+        this.listener = listener;
+        this.eventClass = eventClass;
+        this.executor = executor;
+        this.reducer = reducer;
+    }
+
+    @Override
+    public void execute(@NotNull final Listener listener, @NotNull final Event event) {
+        // Handler lists are shared with subclasses of the event
+        if (!eventClass.isInstance(event)) {
+            return;
+        }
+
+        final Object key;
+
+        if (event instanceof PlayerEvent) {
+            key = ((PlayerEvent) event).getPlayer().getUniqueId();
+        } else if (event instanceof EntityEvent) {
+            key = ((EntityEvent) event).getEntity().getUniqueId();
+        } else {
+            key = event.getClass();
+        }
+
+        synchronized (this) {
+            pending.merge(key, event, reducer::reduce);
+        }
+    }
+
+    /**
+     * Pass the events collected since the last flush to the handler
+     */
+    void flush() {
+        final Map<Object, Event> events;
+
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            events = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        for (final Event event : events.values()) {
+            try {
+                executor.execute(listener, event);
+            } catch (EventException e) {
+                module.error("Could not pass coalesced " + event.getEventName() + " to " + listener.getClass().getName(), e.getCause());
+            }
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import me.mattstudios.mf.base.components.CompletionResolver;
 import me.mattstudios.mf.base.components.MessageResolver;
 import me.mattstudios.mf.base.components.ParameterResolver;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +59,19 @@ public interface CommandModule {
         return Collections.emptyMap();
     }
 
+    /**
+     * Get how long the candidates of the module's {@link #getCompletions() completions} are cached. Cached candidates
+     * are sorted once and filtered by the typed prefix with a binary search, so only enable caching for resolvers whose
+     * candidates don't depend on the player or change often. Resolvers that already are
+     * {@link CachedCompletionResolver}s are registered as they are.
+     * @return TTL, {@link Duration#ZERO} or negative to resolve the candidates on every completion, which is the default
+     * @see ModuleManager#invalidateCompletions(String)
+     * @since 1.1.0
+     */
+    default Duration getCompletionCacheTtl() {
+        return Duration.ZERO;
+    }
+
     /**
      * Get the commands messages of a module
      * @return map of {@link MessageResolver}s and their ID
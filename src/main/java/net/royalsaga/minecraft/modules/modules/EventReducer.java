@@ -0,0 +1,69 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Folds the events a {@link net.royalsaga.minecraft.modules.annotations.CoalescedEventHandler} receives during a tick
+ * into the single event it's called with. Implementations need a public no-args constructor.
+ * <pre>{@code
+ * public class MoveReducer implements EventReducer<PlayerMoveEvent> {
+ *     @Override
+ *     public PlayerMoveEvent reduce(final PlayerMoveEvent previous, final PlayerMoveEvent next) {
+ *         return new PlayerMoveEvent(next.getPlayer(), previous.getFrom(), next.getTo());
+ *     }
+ * }
+ * }</pre>
+ * @param <E> event
+ * @since 1.1.0
+ */
+@FunctionalInterface
+public interface EventReducer<E extends Event> {
+
+    /**
+     * @param previous event folded so far in the current tick
+     * @param next     event fired after it
+     * @return event replacing both
+     * @since 1.1.0
+     */
+    @NotNull
+    E reduce(@NotNull final E previous, @NotNull final E next);
+
+    /**
+     * Reducer keeping the latest event, the default one
+     * @since 1.1.0
+     */
+    final class Latest implements EventReducer<Event> {
+
+        @NotNull
+        @Override
+        public Event reduce(@NotNull final Event previous, @NotNull final Event next) {
+            return next;
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import net.royalsaga.minecraft.modules.placeholders.PlaceholderProvider;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Placeholder provider registered for a lazy module, activates the module on its first placeholder request
+ * @see ModuleManager#registerLazy(ModuleDescriptor)
+ * @since 1.1.0
+ */
+final class LazyPlaceholderProvider implements PlaceholderProvider {
+
+    private final ModuleManager<?> moduleManager;
+    private final String id;
+
+    LazyPlaceholderProvider(@NotNull final ModuleManager<?> moduleManager, @NotNull final String id) {
+        this.moduleManager = moduleManager;
+        this.id = id;
+    }
+
+    @Override
+    public @Nullable String parse(@Nullable final OfflinePlayer offlinePlayer, @NotNull final String params) {
+        if (moduleManager.getModule(id) == null) {
+            return null;
+        }
+
+        final PlaceholderProvider provider = moduleManager.getPlaceholderIndex().get(id);
+
+        if (provider == null || provider == this) {
+            return null;
+        }
+
+        return provider.parse(offlinePlayer, params);
+    }
+
+}
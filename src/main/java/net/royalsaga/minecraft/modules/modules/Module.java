@@ -25,12 +25,25 @@ package net.royalsaga.minecraft.modules.modules;
 
 import net.royalsaga.minecraft.modules.annotations.ModuleInfo;
 import net.royalsaga.minecraft.modules.config.Config;
+import net.royalsaga.minecraft.modules.data.AuditLog;
+import net.royalsaga.minecraft.modules.data.PlayerDataCodec;
+import net.royalsaga.minecraft.modules.data.PlayerDataStore;
+import net.royalsaga.minecraft.modules.data.UuidLongMap;
 import net.royalsaga.minecraft.modules.exceptions.ModuleException;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
 /**
@@ -43,22 +56,46 @@ public class Module<P extends JavaPlugin> {
     protected final P plugin;
     protected final String id;
     protected final Config config;
+    protected final ModuleScheduler scheduler;
+    private final List<PlayerDataStore<?>> playerData = new CopyOnWriteArrayList<>();
+    private final Map<String, UuidLongMap> counters = new ConcurrentHashMap<>();
+    /**
+     * Held while writing the counters, so {@link #saveCounters()} and {@link #closeData()} don't write the same files at
+     * once and an older write never replaces a newer one
+     */
+    private final Object countersLock = new Object();
+    private final Map<String, AuditLog> auditLogs = new ConcurrentHashMap<>();
+    /**
+     * Whether the module is registered and its {@link PlayerDataStore}s are open
+     */
+    private volatile boolean dataOpen;
 
     /**
      * @param plugin           plugin
      * @param isConfigResource whether the config.yml file is found on plugin's folder
      *                         ({@code modules/<module id>/config.yml})
-     * @throws ModuleException if the class is not annotated with {@link ModuleInfo}
+     * @throws ModuleException if the class is not annotated with {@link ModuleInfo} and is not created from a
+     *                         {@link ModuleDescriptor}
      */
     public Module(@NotNull P plugin, boolean isConfigResource) throws ModuleException {
         this.plugin = plugin;
 
-        if (!getClass().isAnnotationPresent(ModuleInfo.class)) {
-            throw new ModuleException("Module class " + getClass().getCanonicalName() + " needs to be annotated with @ModuleInfo");
+        // Modules created from a descriptor, like the indexed ones, already know their id
+        final String id = ModuleDescriptor.getCreatingId(getClass());
+
+        if (id != null) {
+            this.id = id;
+        } else {
+            final ModuleInfo info = getClass().getAnnotation(ModuleInfo.class);
+
+            if (info == null) {
+                throw new ModuleException("Module class " + getClass().getCanonicalName() + " needs to be annotated with @ModuleInfo");
+            }
+
+            this.id = info.id();
         }
 
-        final ModuleInfo info = getClass().getAnnotation(ModuleInfo.class);
-        this.id = info.id();
+        this.scheduler = new ModuleScheduler(this);
 
         this.config = new Config(this, isConfigResource);
     }
@@ -82,14 +119,182 @@ public class Module<P extends JavaPlugin> {
         return config;
     }
 
+    /**
+     * @return scheduler whose tasks are cancelled when the module is unregistered
+     * @since 1.1.0
+     */
+    public final ModuleScheduler getScheduler() {
+        return scheduler;
+    }
+
     public final String getId() {
         return id;
     }
 
+    /**
+     * Create a store for data kept for each player, saved in {@code modules/<module id>/<name>/} every 30 seconds and
+     * keeping up to 1000 offline players in memory. The store is opened when the module is registered and closed when
+     * it's unregistered.
+     *
+     * @param name  name of the folder the data is saved in
+     * @param codec codec of the data
+     * @param <T>   type of the player data
+     * @return store
+     * @see #createPlayerData(String, PlayerDataCodec, Duration, int)
+     * @since 1.1.0
+     */
+    @NotNull
+    public final <T> PlayerDataStore<T> createPlayerData(@NotNull final String name, @NotNull final PlayerDataCodec<T> codec) {
+        return createPlayerData(name, codec, Duration.ofSeconds(30), 1000);
+    }
+
+    /**
+     * Create a store for data kept for each player, saved in {@code modules/<module id>/<name>/}. The store is opened
+     * on the main thread when the module is registered, closed when it's unregistered, and opened again if it's
+     * registered again. Stores created while the module is registered are opened right away, so they must be created
+     * on the main thread.
+     *
+     * @param name            name of the folder the data is saved in
+     * @param codec           codec of the data
+     * @param flushInterval   time between writes of the changed data
+     * @param offlineCapacity maximum number of offline players kept in memory
+     * @param <T>             type of the player data
+     * @return store
+     * @since 1.1.0
+     */
+    @NotNull
+    public final <T> PlayerDataStore<T> createPlayerData(@NotNull final String name, @NotNull final PlayerDataCodec<T> codec,
+                                                         @NotNull final Duration flushInterval, final int offlineCapacity) {
+        final PlayerDataStore<T> store = new PlayerDataStore<>(this, name, codec, flushInterval, offlineCapacity);
+        playerData.add(store);
+
+        if (dataOpen) {
+            store.open();
+        }
+
+        return store;
+    }
+
+    /**
+     * Get per-player counters or gauges, kept in memory without boxing and saved in
+     * {@code modules/<module id>/counters/<name>.bin} when the module is unregistered or {@link #saveCounters()} is
+     * called. Counters saved before are loaded the first time they're requested.
+     *
+     * @param name name of the counters
+     * @return counters, the same instance for the same name
+     * @throws ModuleException if the saved counters can't be read
+     * @since 1.1.0
+     */
+    @NotNull
+    public final UuidLongMap createCounters(@NotNull final String name) {
+        return counters.computeIfAbsent(name, it -> {
+            final UuidLongMap map = new UuidLongMap();
+
+            try {
+                map.readFrom(getCountersFile(it));
+            } catch (NoSuchFileException ignored) {
+                // Never saved
+            } catch (IOException e) {
+                throw new ModuleException("Could not read the " + it + " counters", e);
+            }
+
+            return map;
+        });
+    }
+
+    /**
+     * Save the {@link #createCounters(String) counters} of the module off the main thread
+     *
+     * @return future completed once all the counters are saved
+     * @since 1.1.0
+     */
+    @NotNull
+    public final CompletableFuture<Void> saveCounters() {
+        return scheduler.runAsync(this::writeCounters);
+    }
+
+    private void writeCounters() {
+        synchronized (countersLock) {
+            counters.forEach((name, map) -> {
+                try {
+                    final Path file = getCountersFile(name);
+                    Files.createDirectories(file.getParent());
+                    map.writeTo(file);
+                } catch (IOException e) {
+                    error("Could not save the " + name + " counters", e);
+                }
+            });
+        }
+    }
+
+    @NotNull
+    private Path getCountersFile(@NotNull final String name) {
+        return plugin.getDataFolder().toPath().resolve("modules").resolve(id).resolve("counters").resolve(name + ".bin");
+    }
+
+    /**
+     * Get an append only log, like for economy transactions or punishments, saved in
+     * {@code modules/<module id>/audit/<name>/} in segments of 16 MiB forced to the disk every second. The log is opened
+     * when the module is registered, closed when it's unregistered, and opened again if it's registered again. Logs
+     * created while the module is registered are opened right away.
+     *
+     * @param name name of the log
+     * @return log, the same instance for the same name
+     * @throws ModuleException if the module is registered and the log can't be opened
+     * @since 1.1.0
+     */
+    @NotNull
+    public final AuditLog createAuditLog(@NotNull final String name) {
+        final AuditLog log = auditLogs.computeIfAbsent(name, it -> new AuditLog(this, it, 16 * 1024 * 1024, Duration.ofSeconds(1)));
+
+        if (dataOpen) {
+            log.open();
+        }
+
+        return log;
+    }
+
+    /**
+     * Close the {@link PlayerDataStore}s and {@link AuditLog}s created by the module, writing their changed data, and
+     * save its counters
+     */
+    final void closeData() {
+        dataOpen = false;
+
+        for (final PlayerDataStore<?> store : playerData) {
+            try {
+                store.close();
+            } catch (RuntimeException e) {
+                error("Error while saving player data", e);
+            }
+        }
+
+        writeCounters();
+        auditLogs.values().forEach(AuditLog::close);
+    }
+
+    /**
+     * Open the {@link PlayerDataStore}s and {@link AuditLog}s created by the module, so a module that's registered again
+     * keeps using them. Called on the main thread when the module is registered.
+     */
+    final void openData() {
+        dataOpen = true;
+        playerData.forEach(PlayerDataStore::open);
+        auditLogs.values().forEach(AuditLog::open);
+    }
+
     public List<? extends ModuleListener<? extends Module<P>>> getListeners() {
         return Collections.emptyList();
     }
 
+    /**
+     * Method called after the module is created by {@link ModuleManager#registerAll(java.util.Collection)}
+     * and before it is registered. It may run off the main thread, so it must not use the Bukkit API.
+     * @since 1.1.0
+     */
+    public void onPrepare() {
+    }
+
     /**
      * Method called when the module is registered
      */
@@ -99,6 +304,14 @@ public class Module<P extends JavaPlugin> {
     public void onReload() {
     }
 
+    /**
+     * Method called when the module is unregistered, after its listeners, commands and placeholders are removed
+     * @see ModuleManager#unregister(String)
+     * @since 1.1.0
+     */
+    public void onUnregister() {
+    }
+
     /**
      * Log an error with {@link Level#SEVERE SEVERE} level through {@link #plugin}'s logger with module's {@link #id} as prefix
      *
@@ -0,0 +1,143 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import net.royalsaga.minecraft.modules.annotations.ModuleInfo;
+import net.royalsaga.minecraft.modules.exceptions.ModuleException;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Description of a module that has not been created yet: its id, the modules it depends on and how to create it
+ *
+ * @param <P> the plugin
+ * @see ModuleManager#registerAll(java.util.Collection)
+ * @since 1.1.0
+ */
+public final class ModuleDescriptor<P extends JavaPlugin> {
+
+    /**
+     * Descriptor whose {@link #create(JavaPlugin)} is running on the current thread
+     */
+    private static final ThreadLocal<ModuleDescriptor<?>> CREATING = new ThreadLocal<>();
+
+    private final Class<? extends Module<P>> type;
+    private final String id;
+    private final List<String> dependencies;
+    private final Function<P, ? extends Module<P>> factory;
+
+    /**
+     * @param type         module class
+     * @param id           module id
+     * @param dependencies ids of the modules that have to be registered before this one
+     * @param factory      function that creates the module
+     * @since 1.1.0
+     */
+    public ModuleDescriptor(@NotNull final Class<? extends Module<P>> type, @NotNull final String id,
+                            @NotNull final List<String> dependencies, @NotNull final Function<P, ? extends Module<P>> factory) {
+        this.type = type;
+        this.id = id;
+        this.dependencies = Collections.unmodifiableList(dependencies);
+        this.factory = factory;
+    }
+
+    /**
+     * Describe a module from its {@link ModuleInfo} annotation
+     *
+     * @param type    module class
+     * @param factory function that creates the module, usually its constructor
+     * @param <P>     the plugin
+     * @param <M>     the module
+     * @return descriptor
+     * @throws ModuleException if the class is not annotated with {@link ModuleInfo}
+     * @since 1.1.0
+     */
+    @NotNull
+    public static <P extends JavaPlugin, M extends Module<P>> ModuleDescriptor<P> of(@NotNull final Class<M> type, @NotNull final Function<P, M> factory) {
+        final ModuleInfo info = type.getAnnotation(ModuleInfo.class);
+
+        if (info == null) {
+            throw new ModuleException("Module class " + type.getCanonicalName() + " needs to be annotated with @ModuleInfo");
+        }
+
+        return new ModuleDescriptor<>(type, info.id(), Arrays.asList(info.depends()), factory);
+    }
+
+    /**
+     * Create a new instance of the module
+     *
+     * @param plugin plugin
+     * @return module
+     * @since 1.1.0
+     */
+    @NotNull
+    public Module<P> create(@NotNull final P plugin) {
+        final ModuleDescriptor<?> previous = CREATING.get();
+        CREATING.set(this);
+
+        try {
+            return factory.apply(plugin);
+        } finally {
+            if (previous == null) {
+                CREATING.remove();
+            } else {
+                CREATING.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Get the id of a module being created by {@link #create(JavaPlugin)}, so {@link Module}'s constructor doesn't need
+     * to read its {@link ModuleInfo} annotation
+     * @param type module class
+     * @return id, or null if the module is not created from a descriptor of its class
+     */
+    @Nullable
+    static String getCreatingId(@NotNull final Class<?> type) {
+        final ModuleDescriptor<?> descriptor = CREATING.get();
+        return descriptor != null && descriptor.type == type ? descriptor.id : null;
+    }
+
+    @NotNull
+    public Class<? extends Module<P>> getType() {
+        return type;
+    }
+
+    @NotNull
+    public String getId() {
+        return id;
+    }
+
+    @NotNull
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+
+}
@@ -0,0 +1,207 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import net.royalsaga.minecraft.modules.annotations.AsyncEventHandler;
+import net.royalsaga.minecraft.modules.annotations.CoalescedEventHandler;
+import net.royalsaga.minecraft.modules.metrics.LatencyHistogram;
+import net.royalsaga.minecraft.modules.metrics.ModuleMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventExecutor} of a single {@link EventHandler} method. The method is invoked through a {@link MethodHandle}
+ * instead of reflection, its durations are recorded and a warning is logged when it takes longer than
+ * {@link ModuleManager#getSlowHandlerThreshold()}.
+ * <p>
+ * For {@link AsyncEventHandler}s, only the method is timed and the task it returns is handed to the module's
+ * {@link AsyncEventDispatcher}. {@link CoalescedEventHandler}s are registered through a {@link CoalescingEventExecutor}
+ * that calls their executor once per tick.
+ * @see ModuleManager#getMetrics(String)
+ * @since 1.1.0
+ */
+final class ModuleEventExecutor implements EventExecutor {
+
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Listener.class, Event.class);
+    private static final MethodType ASYNC_HANDLER_TYPE = MethodType.methodType(Runnable.class, Listener.class, Event.class);
+    /**
+     * Minimum time between two slow handler warnings of the same handler
+     */
+    private static final long WARNING_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final ModuleManager<?> moduleManager;
+    private final Module<?> module;
+    private final Class<? extends Event> eventClass;
+    private final String name;
+    private final MethodHandle handle;
+    private final LatencyHistogram histogram;
+    @Nullable
+    private final AsyncEventDispatcher dispatcher;
+
+    private volatile long lastWarning = System.nanoTime() - WARNING_INTERVAL;
+    private volatile int suppressedWarnings;
+
+    private ModuleEventExecutor(@NotNull final ModuleManager<?> moduleManager, @NotNull final Module<?> module,
+                                @NotNull final Class<? extends Event> eventClass, @NotNull final Method method,
+                                @NotNull final LatencyHistogram histogram, @Nullable final AsyncEventDispatcher dispatcher) throws IllegalAccessException {
+        this.moduleManager = moduleManager;
+        this.module = module;
+        this.eventClass = eventClass;
+        this.name = method.getDeclaringClass().getSimpleName() + '#' + method.getName();
+        this.handle = MethodHandles.lookup().unreflect(method).asType(dispatcher == null ? HANDLER_TYPE : ASYNC_HANDLER_TYPE);
+        this.histogram = histogram;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Register the {@link EventHandler}, {@link AsyncEventHandler} and {@link CoalescedEventHandler} methods of a listener like
+     * {@link org.bukkit.plugin.PluginManager#registerEvents(Listener, Plugin)} does, with {@link ModuleEventExecutor}s
+     * @param moduleManager manager registering the listener
+     * @param registration  registration of the module the listener belongs to
+     * @param listener      listener
+     * @param metrics       metrics of the module
+     */
+    static void registerEvents(@NotNull final ModuleManager<?> moduleManager, @NotNull final ModuleRegistration<?> registration,
+                               @NotNull final Listener listener, @NotNull final ModuleMetrics metrics) {
+        final Plugin plugin = moduleManager.getPlugin();
+        final Module<?> module = registration.module;
+        final Set<Method> methods = new LinkedHashSet<>(Arrays.asList(listener.getClass().getMethods()));
+        methods.addAll(Arrays.asList(listener.getClass().getDeclaredMethods()));
+
+        for (final Method method : methods) {
+            final EventHandler handler = method.getAnnotation(EventHandler.class);
+            final AsyncEventHandler asyncHandler = method.getAnnotation(AsyncEventHandler.class);
+            final CoalescedEventHandler coalescedHandler = method.getAnnotation(CoalescedEventHandler.class);
+
+            if ((handler == null && asyncHandler == null && coalescedHandler == null) || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+
+            final Class<?>[] parameters = method.getParameterTypes();
+            final boolean async = asyncHandler != null;
+
+            if (parameters.length != 1 || !Event.class.isAssignableFrom(parameters[0]) || (async && method.getReturnType() != Runnable.class)) {
+                plugin.getLogger().severe(String.format("%s attempted to register an invalid EventHandler method signature \"%s\" in %s",
+                        plugin.getName(), method.toGenericString(), listener.getClass()));
+                continue;
+            }
+
+            final Class<? extends Event> eventClass = parameters[0].asSubclass(Event.class);
+            method.setAccessible(true);
+
+            final ModuleEventExecutor executor;
+
+            try {
+                executor = new ModuleEventExecutor(moduleManager, module, eventClass, method, metrics.getEvents(),
+                        async ? moduleManager.getAsyncEventDispatcher(module, metrics) : null);
+            } catch (IllegalAccessException e) {
+                module.error("Could not register " + method.toGenericString(), e);
+                continue;
+            }
+
+            if (async) {
+                Bukkit.getServer().getPluginManager().registerEvent(eventClass, listener, asyncHandler.priority(), executor, plugin, asyncHandler.ignoreCancelled());
+            } else if (coalescedHandler != null) {
+                final EventReducer<Event> reducer;
+
+                try {
+                    @SuppressWarnings("unchecked")
+                    final EventReducer<Event> instance = (EventReducer<Event>) coalescedHandler.reducer().getDeclaredConstructor().newInstance();
+                    reducer = instance;
+                } catch (ReflectiveOperationException e) {
+                    module.error("Could not create the reducer of " + method.toGenericString(), e);
+                    continue;
+                }
+
+                final CoalescingEventExecutor coalescingExecutor = new CoalescingEventExecutor(module, listener, eventClass, executor, reducer);
+                moduleManager.addCoalescer(registration, coalescingExecutor);
+                Bukkit.getServer().getPluginManager().registerEvent(eventClass, listener, coalescedHandler.priority(), coalescingExecutor, plugin, coalescedHandler.ignoreCancelled());
+            } else {
+                Bukkit.getServer().getPluginManager().registerEvent(eventClass, listener, handler.priority(), executor, plugin, handler.ignoreCancelled());
+            }
+        }
+    }
+
+    @Override
+    public void execute(@NotNull final Listener listener, @NotNull final Event event) throws EventException {
+        // Handler lists are shared with subclasses of the event
+        if (!eventClass.isInstance(event)) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+
+        try {
+            if (dispatcher == null) {
+                handle.invokeExact(listener, event);
+            } else {
+                final Runnable task = (Runnable) handle.invokeExact(listener, event);
+
+                if (task != null) {
+                    dispatcher.execute(task);
+                }
+            }
+        } catch (Throwable t) {
+            throw new EventException(t);
+        } finally {
+            final long end = System.nanoTime();
+            histogram.record(end - start);
+
+            if (end - start > moduleManager.getSlowHandlerThresholdNanos()) {
+                warnSlow(event, end - start, end);
+            }
+        }
+    }
+
+    private void warnSlow(@NotNull final Event event, final long duration, final long now) {
+        if (now - lastWarning < WARNING_INTERVAL) {
+            suppressedWarnings++;
+            return;
+        }
+
+        final int suppressed = suppressedWarnings;
+        suppressedWarnings = 0;
+        lastWarning = now;
+
+        module.warn(String.format("%s took %.2fms to handle %s%s", name, duration / 1_000_000.0, event.getEventName(),
+                suppressed == 0 ? "" : String.format(" (%d more slow calls in the last %ds)", suppressed, TimeUnit.NANOSECONDS.toSeconds(WARNING_INTERVAL))));
+    }
+
+}
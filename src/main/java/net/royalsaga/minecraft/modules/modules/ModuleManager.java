@@ -23,72 +23,1037 @@
  */
 package net.royalsaga.minecraft.modules.modules;
 
+import me.mattstudios.mf.annotations.Alias;
+import me.mattstudios.mf.annotations.Command;
+import me.mattstudios.mf.base.CommandBase;
 import me.mattstudios.mf.base.CommandManager;
+import me.mattstudios.mf.base.components.CompletionResolver;
+import net.royalsaga.minecraft.modules.config.Config;
+import net.royalsaga.minecraft.modules.exceptions.ModuleException;
+import net.royalsaga.minecraft.modules.metrics.ModuleMetrics;
+import net.royalsaga.minecraft.modules.placeholders.AsyncPlaceholderProvider;
+import net.royalsaga.minecraft.modules.placeholders.CachedPlaceholderProvider;
+import net.royalsaga.minecraft.modules.placeholders.PlaceholderIndex;
 import net.royalsaga.minecraft.modules.placeholders.PlaceholderProvider;
+import net.royalsaga.minecraft.modules.placeholders.PlaceholderTable;
+import net.royalsaga.minecraft.modules.placeholders.PrefetchingPlaceholderProvider;
+import net.royalsaga.minecraft.modules.placeholders.TimedPlaceholderProvider;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.command.CommandMap;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 public class ModuleManager<P extends JavaPlugin> {
 
-    private final Map<String, Module<P>> registeredModules = new HashMap<>();
-    private final Map<String, PlaceholderProvider> placeholderProviders = new HashMap<>();
+    /**
+     * Id of the {@link me.mattstudios.mf.base.MessageHandler message} sent when a module already runs its
+     * {@link #setAsyncCommandLimit(int) maximum number} of {@link net.royalsaga.minecraft.modules.annotations.AsyncCommand async commands}
+     * @since 1.1.0
+     */
+    public static final String ASYNC_COMMAND_BUSY_MESSAGE = "cmd.async.busy";
+    /**
+     * Id of the {@link me.mattstudios.mf.base.MessageHandler message} sent when the thread pool of a module refuses an
+     * {@link net.royalsaga.minecraft.modules.annotations.AsyncCommand async command}, because the module is being unregistered
+     * @since 1.1.0
+     */
+    public static final String ASYNC_COMMAND_REJECTED_MESSAGE = "cmd.async.rejected";
+    /**
+     * Id of the {@link me.mattstudios.mf.base.MessageHandler message} sent when an
+     * {@link net.royalsaga.minecraft.modules.annotations.AsyncCommand async command} times out
+     * @since 1.1.0
+     */
+    public static final String ASYNC_COMMAND_TIMEOUT_MESSAGE = "cmd.async.timeout";
+    /**
+     * Id of the {@link me.mattstudios.mf.base.MessageHandler message} sent for a subcommand of an
+     * {@link #unregister(String) unregistered} module, while its label stays registered for other modules
+     * @since 1.1.0
+     */
+    public static final String COMMAND_UNAVAILABLE_MESSAGE = "cmd.unavailable";
+
+    /**
+     * Registered modules and placeholder providers, replaced on every change while holding {@link #registryLock} so
+     * placeholders and modules can be looked up from any thread without locking
+     */
+    private volatile ModuleRegistry<P> registry = ModuleRegistry.empty();
+    private final Object registryLock = new Object();
+    /**
+     * Bukkit commands of unregistered modules, by label, in case the commands are registered again
+     */
+    private final Map<String, org.bukkit.command.Command> detachedCommands = new HashMap<>();
+    /**
+     * Metrics by module id, kept when a module is unregistered so they survive reloads
+     */
+    private final Map<String, ModuleMetrics> metrics = new ConcurrentHashMap<>();
 
     private final P plugin;
     private final CommandManager commandManager;
 
+    private volatile long slowHandlerThreshold = TimeUnit.MILLISECONDS.toNanos(10);
+    private int asyncEventThreads = 1;
+    private int asyncEventQueueCapacity = 1024;
+    private int asyncCommandLimit = 4;
+
+    /**
+     * Executors of the {@link net.royalsaga.minecraft.modules.annotations.CoalescedEventHandler}s of all the modules,
+     * flushed every tick by {@link #coalescerTask} while not empty
+     */
+    private final List<CoalescingEventExecutor> coalescers = new CopyOnWriteArrayList<>();
+    private BukkitTask coalescerTask;
+
     public ModuleManager(@NotNull P plugin, @Nullable CommandManager commandManager) {
         this.plugin = plugin;
         this.commandManager = commandManager == null ? new CommandManager(plugin, true) : commandManager;
+        TimedCommand.registerMessages(this.commandManager.getMessageHandler());
+
+        Bukkit.getServer().getPluginManager().registerEvents(new ModuleManagerListener(this), plugin);
     }
 
+    /**
+     * Register a module
+     * @param module module
+     * @throws ModuleException if a module with the same id is already registered
+     */
     public void register(@NotNull final Module<P> module) {
-        registeredModules.put(module.id, module);
+        register(module, null);
+    }
+
+    /**
+     * Register a module. If registration fails, whatever was already registered for the module is removed again before
+     * the exception is rethrown.
+     * @param module     module
+     * @param descriptor descriptor the module was created from, used to create a new instance on {@link #reload(String)}
+     */
+    private void register(@NotNull final Module<P> module, @Nullable final ModuleDescriptor<P> descriptor) {
+        if (registry.contains(module.id)) {
+            throw new ModuleException("Module " + module.id + " is already registered");
+        }
+
+        final ModuleRegistration<P> registration = new ModuleRegistration<>(module, descriptor);
+
+        try {
+            register(registration);
+        } catch (RuntimeException e) {
+            synchronized (registryLock) {
+                if (registry.modules.get(module.id) == registration) {
+                    registry = registry.without(module.id);
+                }
+            }
+
+            release(registration);
+            module.closeData();
+            module.getScheduler().shutdown();
+            throw e;
+        }
+    }
 
-        module.getListeners().forEach(it -> Bukkit.getServer().getPluginManager().registerEvents(it, plugin));
+    private void register(@NotNull final ModuleRegistration<P> registration) {
+        final Module<P> module = registration.module;
+        module.getScheduler().start();
+        final ModuleMetrics metrics = this.metrics.computeIfAbsent(module.id, ModuleMetrics::new);
+
+        for (final Listener listener : module.getListeners()) {
+            ModuleEventExecutor.registerEvents(this, registration, listener, metrics);
+            registration.listeners.add(listener);
+        }
 
         if (module instanceof CommandModule) {
             final CommandModule commandModule = (CommandModule) module;
 
-            commandModule.getCompletions().forEach(commandManager.getCompletionHandler()::register);
+            final Duration completionTtl = commandModule.getCompletionCacheTtl();
+
+            commandModule.getCompletions().forEach((id, resolver) -> {
+                CompletionResolver registered = resolver;
+
+                if (resolver instanceof CachedCompletionResolver) {
+                    registration.completionCaches.add((CachedCompletionResolver) resolver);
+                } else if (!completionTtl.isZero() && !completionTtl.isNegative()) {
+                    final CachedCompletionResolver cached = new CachedCompletionResolver(resolver, completionTtl);
+                    registration.completionCaches.add(cached);
+                    registered = cached;
+                }
+
+                commandManager.getCompletionHandler().register(id, registered);
+                registration.completions.add(id);
+            });
             commandModule.getMessages().forEach(commandManager.getMessageHandler()::register);
             commandModule.getParameters().forEach(commandManager.getParameterHandler()::register);
-            commandModule.getCommands().forEach(commandManager::register);
+
+            for (final CommandBase command : commandModule.getCommands()) {
+                commandManager.register(command);
+                registration.commands.add(command);
+                reattachCommand(command);
+                timeCommand(command, module, metrics);
+            }
         }
 
-        if (module instanceof PlaceholderProvider) {
-            placeholderProviders.put(module.id, (PlaceholderProvider) module);
+        final PlaceholderProvider placeholderProvider = createPlaceholderProvider(module);
+        final PlaceholderProvider timedProvider = placeholderProvider == null ? null : new TimedPlaceholderProvider(placeholderProvider, metrics.getPlaceholders(), metrics.getPlaceholderBatches());
+
+        // The module and its placeholders become visible to other threads at once
+        synchronized (registryLock) {
+            if (registry.contains(module.id)) {
+                throw new ModuleException("Module " + module.id + " is already registered");
+            }
+
+            registry = registry.withModule(registration, timedProvider);
         }
 
+        module.openData();
         module.info("Registered!");
         module.onRegister();
     }
 
     /**
-     * Get a module by its {@link Module#id id}
+     * Unregister a module: its listeners, commands, command completions and placeholders are removed and
+     * {@link Module#onUnregister()} is called.
+     * <p>
+     * A command label shared with another module stays registered for that module, only the subcommands of this module
+     * are removed from it. Message and parameter resolvers are shared by all the commands of the {@link CommandManager} and stay registered.
+     * @param id module id
+     * @return true if the module was registered
+     * @since 1.1.0
+     */
+    public boolean unregister(@NotNull final String id) {
+        return unregister(id, new ArrayList<>());
+    }
+
+    /**
+     * Unregister a module
+     * @param id module id
+     * @param terminations list the terminations of the module's async tasks are added to
+     * @return true if the module was registered
+     */
+    private boolean unregister(@NotNull final String id, @NotNull final List<ModuleScheduler.Termination> terminations) {
+        final ModuleRegistration<P> registration;
+
+        synchronized (registryLock) {
+            final ModuleRegistry<P> registry = this.registry;
+
+            if (!registry.contains(id)) {
+                return false;
+            }
+
+            registration = registry.modules.get(id);
+            this.registry = registry.without(id);
+        }
+
+        if (registration == null) {
+            // Lazy module that was never created
+            return true;
+        }
+
+        release(registration);
+
+        final Module<P> module = registration.module;
+
+        try {
+            module.onUnregister();
+        } catch (RuntimeException e) {
+            module.error("Error while unregistering", e);
+        }
+
+        // After onUnregister, so modules can still change their player data and counters there
+        module.closeData();
+        // Last, so onUnregister and closeData can still schedule tasks
+        terminations.addAll(module.getScheduler().shutdown());
+
+        module.info("Unregistered!");
+        return true;
+    }
+
+    /**
+     * Remove the listeners, commands and command completions of a module
+     * @param registration registration of the module
+     */
+    private void release(@NotNull final ModuleRegistration<P> registration) {
+        registration.listeners.forEach(HandlerList::unregisterAll);
+
+        if (!registration.coalescers.isEmpty()) {
+            coalescers.removeAll(registration.coalescers);
+
+            if (coalescers.isEmpty() && coalescerTask != null) {
+                coalescerTask.cancel();
+                coalescerTask = null;
+            }
+        }
+
+        registration.commands.forEach(this::detachCommand);
+        // The completion handler can't remove resolvers, replace them so they stop referencing the module
+        registration.completions.forEach(it -> commandManager.getCompletionHandler().register(it, input -> Collections.emptyList()));
+        registration.module.getConfig().unwatch();
+    }
+
+    /**
+     * Unregister all the modules, the most recently registered first, so their {@link Module#onUnregister()} runs and
+     * their player data, counters and audit logs are saved. Call it from the plugin's {@link JavaPlugin#onDisable()},
+     * after the plugin's own shutdown code. Otherwise the modules are unregistered when Bukkit fires the
+     * {@link org.bukkit.event.server.PluginDisableEvent}, which happens before onDisable, so the plugin's shutdown code
+     * would find them unregistered and their data closed.
+     * <p>
+     * The {@link ModuleScheduler}s of the modules are stopped once they're all unregistered, this waits up to 5 seconds
+     * for their queued async tasks.
+     * @see #unregister(String)
+     * @since 1.1.0
+     */
+    public void shutdown() {
+        final ModuleRegistry<P> registry = this.registry;
+        final List<String> ids = new ArrayList<>(registry.modules.keySet());
+        ids.addAll(registry.lazyModules.keySet());
+        Collections.reverse(ids);
+
+        final List<ModuleScheduler.Termination> terminations = new ArrayList<>();
+
+        for (final String id : ids) {
+            try {
+                unregister(id, terminations);
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, String.format("[%s] Could not unregister module", id), e);
+            }
+        }
+
+        Config.unwatchAll(plugin);
+        TickScheduler.stop(plugin);
+        awaitTerminations(terminations);
+    }
+
+    /**
+     * Reload a module by unregistering and registering it again. Modules created from a {@link ModuleDescriptor} are
+     * replaced by a new instance, other modules reload their {@link Module#getConfig() config} and get
+     * {@link Module#onReload()} called before they're registered again. A watched {@link Module#getConfig() config} is
+     * watched again.
+     * <p>
+     * If the module can't be created or registered again, the error is logged and the previous instance is registered
+     * again.
+     * @param id module id
+     * @return true if the module was reloaded, or is a lazy module that was never created
+     * @see #unregister(String)
+     * @since 1.1.0
+     */
+    public boolean reload(@NotNull final String id) {
+        final ModuleRegistry<P> registry = this.registry;
+        final ModuleRegistration<P> registration = registry.modules.get(id);
+
+        if (registration == null) {
+            return registry.lazyModules.containsKey(id);
+        }
+
+        final boolean watched = registration.module.getConfig().isWatched();
+        unregister(id);
+
+        try {
+            final Module<P> module;
+
+            if (registration.descriptor != null) {
+                module = registration.descriptor.create(plugin);
+                module.onPrepare();
+            } else {
+                module = registration.module;
+                module.getConfig().reload();
+                module.onReload();
+            }
+
+            register(module, registration.descriptor);
+
+            if (watched) {
+                module.getConfig().watch();
+            }
+
+            return true;
+        } catch (RuntimeException e) {
+            registration.module.error("Could not reload, registering the previous instance again", e);
+        }
+
+        try {
+            register(registration.module, registration.descriptor);
+
+            if (watched) {
+                registration.module.getConfig().watch();
+            }
+        } catch (RuntimeException e) {
+            registration.module.error("Could not register the previous instance again", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove the subcommands of a {@link CommandBase} from the Bukkit command of its labels, and remove the Bukkit command
+     * from the server's {@link CommandMap} once no other module's command uses the label
+     * @param command command
+     */
+    private void detachCommand(@NotNull final CommandBase command) {
+        final CommandMap commandMap = Bukkit.getCommandMap();
+        final Map<String, org.bukkit.command.Command> knownCommands = commandMap.getKnownCommands();
+
+        for (final String label : getLabels(command)) {
+            final org.bukkit.command.Command bukkitCommand = knownCommands.get(getFallbackPrefix() + ':' + label);
+
+            if (bukkitCommand == null) {
+                continue;
+            }
+
+            if (bukkitCommand instanceof TimedCommand && !((TimedCommand) bukkitCommand).removeSubCommands(command)) {
+                continue;
+            }
+
+            bukkitCommand.unregister(commandMap);
+            knownCommands.values().removeIf(it -> it == bukkitCommand);
+            detachedCommands.put(label, bukkitCommand);
+        }
+    }
+
+    /**
+     * Add the Bukkit command of a {@link CommandBase} back to the server's {@link CommandMap} if it was detached and
+     * {@link CommandManager} didn't register a new one
+     * @param command command
+     */
+    private void reattachCommand(@NotNull final CommandBase command) {
+        if (detachedCommands.isEmpty()) {
+            return;
+        }
+
+        final CommandMap commandMap = Bukkit.getCommandMap();
+
+        for (final String label : getLabels(command)) {
+            final org.bukkit.command.Command bukkitCommand = detachedCommands.remove(label);
+
+            if (bukkitCommand != null && commandMap.getKnownCommands().get(getFallbackPrefix() + ':' + label) == null) {
+                commandMap.register(label, plugin.getName(), bukkitCommand);
+            }
+        }
+    }
+
+    /**
+     * Replace the Bukkit command of a {@link CommandBase} in the server's {@link CommandMap} with a {@link TimedCommand},
+     * or add the command's subcommands to the {@link TimedCommand} of its label
+     * @param command   command
+     * @param module    module of the command
+     * @param metrics   metrics of the module, the command durations are recorded to
+     */
+    private void timeCommand(@NotNull final CommandBase command, @NotNull final Module<P> module, @NotNull final ModuleMetrics metrics) {
+        final Map<String, org.bukkit.command.Command> knownCommands = Bukkit.getCommandMap().getKnownCommands();
+
+        for (final String label : getLabels(command)) {
+            final org.bukkit.command.Command bukkitCommand = knownCommands.get(getFallbackPrefix() + ':' + label);
+
+            if (bukkitCommand == null) {
+                continue;
+            }
+
+            if (bukkitCommand instanceof TimedCommand) {
+                ((TimedCommand) bukkitCommand).addSubCommands(command, module, metrics, asyncCommandLimit);
+                continue;
+            }
+
+            final TimedCommand timedCommand = new TimedCommand(bukkitCommand, commandManager.getMessageHandler());
+            timedCommand.addSubCommands(command, module, metrics, asyncCommandLimit);
+            knownCommands.replaceAll((key, value) -> value == bukkitCommand ? timedCommand : value);
+        }
+    }
+
+    @NotNull
+    private List<String> getLabels(@NotNull final CommandBase command) {
+        final Command annotation = command.getClass().getAnnotation(Command.class);
+
+        if (annotation == null) {
+            return Collections.emptyList();
+        }
+
+        final List<String> labels = new ArrayList<>();
+        labels.add(annotation.value().toLowerCase(Locale.ENGLISH));
+
+        final Alias alias = command.getClass().getAnnotation(Alias.class);
+
+        if (alias != null) {
+            for (final String it : alias.value()) {
+                labels.add(it.toLowerCase(Locale.ENGLISH));
+            }
+        }
+
+        return labels;
+    }
+
+    @NotNull
+    private String getFallbackPrefix() {
+        return plugin.getName().toLowerCase(Locale.ENGLISH).trim();
+    }
+
+    /**
+     * Create and register many modules at once. Modules are registered after the modules they
+     * {@link net.royalsaga.minecraft.modules.annotations.ModuleInfo#depends() depend} on, and modules that don't depend on
+     * each other are created, including their {@link net.royalsaga.minecraft.modules.config.Config Config} loading and
+     * {@link Module#onPrepare()}, in parallel. Registration with Bukkit happens on the calling thread, so this method
+     * must be called from the main thread.
+     * <p>
+     * If a module can't be created or registered, the error is logged and the modules that depend on it are skipped.
+     * @param descriptors modules to register
+     * @throws ModuleException if a dependency is missing or the dependencies are circular
+     * @since 1.1.0
+     */
+    public void registerAll(@NotNull final Collection<ModuleDescriptor<P>> descriptors) {
+        final List<List<ModuleDescriptor<P>>> layers = sortByDependencies(descriptors);
+        final Set<String> failed = new HashSet<>();
+
+        final ClassLoader classLoader = plugin.getClass().getClassLoader();
+        final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), it -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(it);
+            thread.setName(plugin.getName() + " Module Loader #" + thread.getPoolIndex());
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+
+        try {
+            for (final List<ModuleDescriptor<P>> layer : layers) {
+                final Map<ModuleDescriptor<P>, CompletableFuture<Module<P>>> modules = new LinkedHashMap<>();
+
+                for (final ModuleDescriptor<P> descriptor : layer) {
+                    descriptor.getDependencies().stream().filter(registry.lazyModules::containsKey).forEach(this::activate);
+
+                    if (descriptor.getDependencies().stream().anyMatch(it -> failed.contains(it) || !registry.modules.containsKey(it))) {
+                        plugin.getLogger().warning(String.format("[%s] Skipped, a dependency could not be loaded", descriptor.getId()));
+                        failed.add(descriptor.getId());
+                        continue;
+                    }
+
+                    modules.put(descriptor, CompletableFuture.supplyAsync(() -> {
+                        final Module<P> module = descriptor.create(plugin);
+                        module.onPrepare();
+                        return module;
+                    }, pool));
+                }
+
+                modules.forEach((descriptor, future) -> {
+                    try {
+                        register(future.join(), descriptor);
+                    } catch (RuntimeException e) {
+                        final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        plugin.getLogger().log(Level.SEVERE, String.format("[%s] Could not load module", descriptor.getId()), cause);
+                        failed.add(descriptor.getId());
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Create and register the modules listed in the plugin's {@link ModuleIndex}es, generated at compile time by
+     * {@link net.royalsaga.minecraft.modules.processor.ModuleInfoProcessor}, like {@link #registerAll(Collection)} does
+     * @throws ModuleException if a dependency is missing or the dependencies are circular
+     * @since 1.1.0
+     */
+    @SuppressWarnings("unchecked")
+    public void registerIndexed() {
+        final List<ModuleDescriptor<P>> descriptors = new ArrayList<>();
+
+        for (final ModuleIndex index : ServiceLoader.load(ModuleIndex.class, plugin.getClass().getClassLoader())) {
+            for (final ModuleDescriptor<?> descriptor : index.getModules()) {
+                descriptors.add((ModuleDescriptor<P>) descriptor);
+            }
+        }
+
+        if (descriptors.isEmpty()) {
+            plugin.getLogger().warning("No indexed modules found, is the annotation processor configured?");
+            return;
+        }
+
+        registerAll(descriptors);
+    }
+
+    /**
+     * Register a module without creating it. The module is created, and its listeners, commands and placeholders are
+     * registered, the first time it is touched: when it's looked up with {@link #getModule(String)}, when one of its
+     * placeholders is requested, or when a module that depends on it is registered.
+     * <p>
+     * Modules touched off the main thread are activated on the next tick, and the call that touched them behaves as if
+     * the module was not registered yet.
+     * @param descriptor module to register
+     * @since 1.1.0
+     */
+    public void registerLazy(@NotNull final ModuleDescriptor<P> descriptor) {
+        final Class<?> type = descriptor.getType();
+        final PlaceholderProvider provider = PlaceholderProvider.class.isAssignableFrom(type) || AsyncPlaceholderProvider.class.isAssignableFrom(type)
+                ? new LazyPlaceholderProvider(this, descriptor.getId())
+                : null;
+
+        synchronized (registryLock) {
+            if (registry.contains(descriptor.getId())) {
+                throw new ModuleException("Module " + descriptor.getId() + " is already registered");
+            }
+
+            registry = registry.withLazyModule(descriptor, provider);
+        }
+    }
+
+    /**
+     * Create and register a lazy module and the lazy modules it depends on
+     * @param id module id
+     * @return module, or null if it could not be created
+     * @see #registerLazy(ModuleDescriptor)
+     */
+    @Nullable
+    private Module<P> activate(@NotNull final String id) {
+        final ModuleDescriptor<P> descriptor;
+
+        synchronized (registryLock) {
+            final ModuleRegistry<P> registry = this.registry;
+            descriptor = registry.lazyModules.get(id);
+
+            if (descriptor == null) {
+                final ModuleRegistration<P> registration = registry.modules.get(id);
+                return registration == null ? null : registration.module;
+            }
+
+            this.registry = registry.withoutLazyModule(id);
+        }
+
+        try {
+            for (final String dependency : descriptor.getDependencies()) {
+                if (activate(dependency) == null) {
+                    throw new ModuleException("Module " + id + " depends on " + dependency + ", which is not registered");
+                }
+            }
+
+            final Module<P> module = descriptor.create(plugin);
+            module.onPrepare();
+            register(module, descriptor);
+            return module;
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, String.format("[%s] Could not load module", id), e);
+
+            synchronized (registryLock) {
+                if (registry.placeholderProviders.get(id) instanceof LazyPlaceholderProvider) {
+                    registry = registry.withoutPlaceholderProvider(id);
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Split modules in layers, where the modules of each layer only depend on modules of previous layers
+     * or modules that are already registered
+     * @param descriptors modules
+     * @return layers in registration order
+     * @throws ModuleException if a dependency is missing or the dependencies are circular
+     */
+    @NotNull
+    private List<List<ModuleDescriptor<P>>> sortByDependencies(@NotNull final Collection<ModuleDescriptor<P>> descriptors) {
+        final Map<String, ModuleDescriptor<P>> pending = new LinkedHashMap<>();
+        descriptors.forEach(it -> pending.put(it.getId(), it));
+
+        for (final ModuleDescriptor<P> descriptor : pending.values()) {
+            for (final String dependency : descriptor.getDependencies()) {
+                if (!pending.containsKey(dependency) && !registry.contains(dependency)) {
+                    throw new ModuleException("Module " + descriptor.getId() + " depends on " + dependency + ", which is not registered");
+                }
+            }
+        }
+
+        final List<List<ModuleDescriptor<P>>> layers = new ArrayList<>();
+
+        while (!pending.isEmpty()) {
+            final List<ModuleDescriptor<P>> layer = new ArrayList<>();
+
+            for (final ModuleDescriptor<P> descriptor : pending.values()) {
+                if (descriptor.getDependencies().stream().noneMatch(pending::containsKey)) {
+                    layer.add(descriptor);
+                }
+            }
+
+            if (layer.isEmpty()) {
+                throw new ModuleException("Circular dependencies between modules " + String.join(", ", pending.keySet()));
+            }
+
+            layer.forEach(it -> pending.remove(it.getId()));
+            layers.add(layer);
+        }
+
+        return layers;
+    }
+
+    /**
+     * Create the provider used to parse the placeholders of a module
+     * @param module module
+     * @return provider, or null if the module doesn't provide placeholders
+     */
+    @Nullable
+    private PlaceholderProvider createPlaceholderProvider(@NotNull final Module<P> module) {
+        if (module instanceof PlaceholderProvider) {
+            final PlaceholderProvider provider = (PlaceholderProvider) module;
+
+            if (provider.getCacheTtl().isZero() || provider.getCacheTtl().isNegative()) {
+                return provider;
+            }
+
+            return new CachedPlaceholderProvider(provider);
+        }
+
+        if (module instanceof AsyncPlaceholderProvider) {
+            return new PrefetchingPlaceholderProvider(
+                    (AsyncPlaceholderProvider) module,
+                    runnable -> Bukkit.getScheduler().runTaskAsynchronously(plugin, runnable),
+                    module::error
+            );
+        }
+
+        return null;
+    }
+
+    @NotNull
+    public P getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Get the registered modules, {@link #registerLazy(ModuleDescriptor) lazy} modules are only included once they're
+     * created
+     * @return modules by id
+     * @since 1.1.0
+     */
+    @NotNull
+    public Map<String, Module<P>> getModules() {
+        final Map<String, Module<P>> modules = new LinkedHashMap<>();
+        registry.modules.forEach((id, registration) -> modules.put(id, registration.module));
+        return modules;
+    }
+
+    /**
+     * Get a module by its {@link Module#id id}, {@link #registerLazy(ModuleDescriptor) lazy} modules are activated
      * @param id id
      * @return module if found, otherwise null
      */
     @Nullable
     public Module<P> getModule(@NotNull final String id) {
-        return registeredModules.get(id);
+        final ModuleRegistry<P> registry = this.registry;
+        final ModuleRegistration<P> registration = registry.modules.get(id);
+
+        if (registration != null || !registry.lazyModules.containsKey(id)) {
+            return registration == null ? null : registration.module;
+        }
+
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, () -> activate(id));
+            return null;
+        }
+
+        return activate(id);
     }
 
+    /**
+     * Parse a placeholder in the {@code <module id>_<params>} format. Safe to call from any thread, like PlaceholderAPI
+     * does for async chat and scoreboard plugins, while modules are registered.
+     * @param player player
+     * @param params module id followed by the provider params
+     * @return value returned by the module's {@link PlaceholderProvider}, or null if there is no provider for the module id
+     * @see PlaceholderIndex#parse(OfflinePlayer, String)
+     */
     @Nullable
     public String parsePlaceholder(@Nullable final OfflinePlayer player, @NotNull final String params) {
-        final String[] split = params.split("_", 2);
-        final PlaceholderProvider provider = placeholderProviders.get(split[0]);
+        return registry.placeholderIndex.parse(player, params);
+    }
 
-        if (provider == null) {
-            return null;
+    /**
+     * Parse many placeholders for many players at once. The params are grouped by module, so each
+     * {@link PlaceholderProvider} gets a single {@link PlaceholderProvider#parseAll(List, List)} call for the whole batch.
+     * @param params  placeholders in the {@code <module id>_<params>} format, one per column of the returned table
+     * @param players players, one per row of the returned table
+     * @return table with the parsed values, null where there is no provider for the module id
+     * @since 1.1.0
+     */
+    @NotNull
+    public PlaceholderTable parsePlaceholders(@NotNull final Collection<String> params, @NotNull final Collection<? extends OfflinePlayer> players) {
+        final List<String> columns = new ArrayList<>(params);
+        final List<? extends OfflinePlayer> rows = new ArrayList<>(players);
+        final PlaceholderTable table = new PlaceholderTable(rows, columns);
+        final PlaceholderIndex index = registry.placeholderIndex;
+
+        final Map<PlaceholderProvider, PlaceholderBatch> batches = new IdentityHashMap<>();
+
+        for (int column = 0; column < columns.size(); column++) {
+            final String placeholder = columns.get(column);
+            final int separator = placeholder.indexOf('_');
+            final PlaceholderProvider provider = index.find(placeholder, 0, separator == -1 ? placeholder.length() : separator);
+
+            if (provider != null) {
+                batches.computeIfAbsent(provider, it -> new PlaceholderBatch())
+                        .add(column, separator == -1 ? "" : placeholder.substring(separator + 1));
+            }
+        }
+
+        batches.forEach((provider, batch) -> {
+            final PlaceholderTable result = provider.parseAll(rows, batch.params);
+
+            for (int row = 0; row < rows.size(); row++) {
+                for (int i = 0; i < batch.columns.size(); i++) {
+                    table.set(row, batch.columns.get(i), result.get(row, i));
+                }
+            }
+        });
+
+        return table;
+    }
+
+    /**
+     * Remove the cached placeholder values of a player from all the {@link CachedPlaceholderProvider}s
+     * and {@link PrefetchingPlaceholderProvider}s. Called automatically when the player quits.
+     * @param uuid player's uuid
+     * @see PlaceholderProvider#getCacheTtl()
+     * @since 1.1.0
+     */
+    public void invalidatePlaceholders(@NotNull final UUID uuid) {
+        for (final PlaceholderProvider it : registry.placeholderProviders.values()) {
+            final PlaceholderProvider provider = it instanceof TimedPlaceholderProvider ? ((TimedPlaceholderProvider) it).getProvider() : it;
+
+            if (provider instanceof CachedPlaceholderProvider) {
+                ((CachedPlaceholderProvider) provider).getCache().invalidate(uuid);
+            } else if (provider instanceof PrefetchingPlaceholderProvider) {
+                ((PrefetchingPlaceholderProvider) provider).getCache().invalidate(uuid);
+            }
+        }
+    }
+
+    /**
+     * Resolve the command completions of a module again on their next use
+     * @param id module id
+     * @see CommandModule#getCompletionCacheTtl()
+     * @since 1.1.0
+     */
+    public void invalidateCompletions(@NotNull final String id) {
+        final ModuleRegistration<P> registration = registry.modules.get(id);
+
+        if (registration != null) {
+            registration.completionCaches.forEach(CachedCompletionResolver::invalidate);
+        }
+    }
+
+    /**
+     * Get the index used to dispatch placeholders to the registered {@link PlaceholderProvider}s
+     * @return current placeholder index
+     * @since 1.1.0
+     */
+    @NotNull
+    public PlaceholderIndex getPlaceholderIndex() {
+        return registry.placeholderIndex;
+    }
+
+    /**
+     * Get the time a module spent in its event handlers, commands and placeholders
+     * @param id module id
+     * @return metrics, or null if the module is not registered
+     * @since 1.1.0
+     */
+    @Nullable
+    public ModuleMetrics getMetrics(@NotNull final String id) {
+        return registry.modules.containsKey(id) ? metrics.get(id) : null;
+    }
+
+    /**
+     * Get the time each registered module spent in its event handlers, commands and placeholders
+     * @return metrics by module id
+     * @see #getMetrics(String)
+     * @since 1.1.0
+     */
+    @NotNull
+    public Map<String, ModuleMetrics> getMetrics() {
+        final Map<String, ModuleMetrics> metrics = new LinkedHashMap<>();
+
+        for (final String id : registry.modules.keySet()) {
+            final ModuleMetrics it = this.metrics.get(id);
+
+            if (it != null) {
+                metrics.put(id, it);
+            }
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Get the time after which an event handler of a module is logged as slow
+     * @return threshold
+     * @see #setSlowHandlerThreshold(Duration)
+     * @since 1.1.0
+     */
+    @NotNull
+    public Duration getSlowHandlerThreshold() {
+        return Duration.ofNanos(slowHandlerThreshold);
+    }
+
+    /**
+     * Set the time after which an event handler of a module is logged as slow, 10 milliseconds by default.
+     * Warnings of the same handler are logged at most every 10 seconds.
+     * @param threshold threshold, {@link Duration#ZERO} or negative to log every call
+     * @since 1.1.0
+     */
+    public void setSlowHandlerThreshold(@NotNull final Duration threshold) {
+        this.slowHandlerThreshold = threshold.toNanos();
+    }
+
+    long getSlowHandlerThresholdNanos() {
+        return slowHandlerThreshold;
+    }
+
+    /**
+     * Set the number of threads running the {@link net.royalsaga.minecraft.modules.annotations.AsyncEventHandler async event}
+     * tasks of each module, 1 by default so tasks run in the order the events were fired.
+     * Only applies to modules registered afterwards.
+     * @param threads number of threads per module
+     * @since 1.1.0
+     */
+    public void setAsyncEventThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive, got " + threads);
+        }
+
+        this.asyncEventThreads = threads;
+    }
+
+    /**
+     * Set the number of {@link net.royalsaga.minecraft.modules.annotations.AsyncEventHandler async event} tasks each module
+     * can have waiting, 1024 by default. Tasks returned while the queue is full are dropped.
+     * Only applies to modules registered afterwards.
+     * @param capacity queue capacity per module
+     * @see ModuleMetrics#getDroppedAsyncEvents()
+     * @since 1.1.0
+     */
+    public void setAsyncEventQueueCapacity(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+
+        this.asyncEventQueueCapacity = capacity;
+    }
+
+    /**
+     * Set the number of {@link net.royalsaga.minecraft.modules.annotations.AsyncCommand async commands} each module can run
+     * at once, 4 by default. Only applies to modules registered afterwards.
+     * @param limit number of commands per module
+     * @since 1.1.0
+     */
+    public void setAsyncCommandLimit(final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive, got " + limit);
+        }
+
+        this.asyncCommandLimit = limit;
+    }
+
+    @NotNull
+    AsyncEventDispatcher getAsyncEventDispatcher(@NotNull final Module<?> module, @NotNull final ModuleMetrics metrics) {
+        return module.getScheduler().getAsyncEvents(() -> new AsyncEventDispatcher(module, metrics, asyncEventThreads, asyncEventQueueCapacity));
+    }
+
+    /**
+     * Get the time per tick the main thread queues of the {@link ModuleScheduler}s of the plugin's modules can use
+     * @return budget
+     * @see ModuleScheduler#runOnMain(Runnable)
+     * @since 1.1.0
+     */
+    @NotNull
+    public Duration getTickBudget() {
+        return Duration.ofNanos(TickScheduler.get(plugin).getBudget());
+    }
+
+    /**
+     * Set the time per tick the main thread queues of the {@link ModuleScheduler}s of the plugin's modules can use,
+     * 5 milliseconds by default. At least one task runs every tick, even if it takes longer than the budget.
+     * @param budget budget
+     * @see ModuleScheduler#runOnMain(Runnable)
+     * @since 1.1.0
+     */
+    public void setTickBudget(@NotNull final Duration budget) {
+        TickScheduler.get(plugin).setBudget(budget.toNanos());
+    }
+
+    /**
+     * Add the executor of a {@link net.royalsaga.minecraft.modules.annotations.CoalescedEventHandler} to the ones flushed
+     * every tick, starting the flushing task if needed
+     * @param registration registration of the module the handler belongs to
+     * @param executor     executor
+     */
+    void addCoalescer(@NotNull final ModuleRegistration<?> registration, @NotNull final CoalescingEventExecutor executor) {
+        registration.coalescers.add(executor);
+        coalescers.add(executor);
+
+        if (coalescerTask == null) {
+            coalescerTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> coalescers.forEach(CoalescingEventExecutor::flush), 1, 1);
+        }
+    }
+
+    /**
+     * Wait up to 5 seconds for the queued async tasks of stopped {@link ModuleScheduler}s
+     * @param terminations terminations of the schedulers
+     */
+    private void awaitTerminations(@NotNull final List<ModuleScheduler.Termination> terminations) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        try {
+            for (final ModuleScheduler.Termination termination : terminations) {
+                if (!termination.await(deadline - System.nanoTime())) {
+                    plugin.getLogger().warning("Async module tasks were still running when the plugin was disabled");
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Register the {@code /modules} admin command, which shows and resets the {@link #getMetrics() metrics} of the
+     * modules and requires the {@code modules.admin} permission
+     * @see ModulesCommand
+     * @since 1.1.0
+     */
+    public void registerAdminCommand() {
+        commandManager.getCompletionHandler().register(ModulesCommand.MODULES_COMPLETION, input -> new ArrayList<>(registry.modules.keySet()));
+        commandManager.register(new ModulesCommand(this));
+    }
+
+    /**
+     * Params of a {@link #parsePlaceholders(Collection, Collection)} call that belong to the same provider
+     */
+    private static final class PlaceholderBatch {
+
+        private final List<Integer> columns = new ArrayList<>();
+        private final List<String> params = new ArrayList<>();
+
+        private void add(final int column, @NotNull final String params) {
+            this.columns.add(column);
+            this.params.add(params);
         }
 
-        return provider.parse(player, (split.length == 1) ? "" : split[1]);
     }
 
 }
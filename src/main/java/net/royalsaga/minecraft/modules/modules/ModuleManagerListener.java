@@ -0,0 +1,61 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener used by {@link ModuleManager} to keep its per-player state up to date
+ * @since 1.1.0
+ */
+final class ModuleManagerListener implements Listener {
+
+    private final ModuleManager<?> moduleManager;
+
+    ModuleManagerListener(@NotNull final ModuleManager<?> moduleManager) {
+        this.moduleManager = moduleManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(final PlayerQuitEvent event) {
+        moduleManager.invalidatePlaceholders(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Fallback for plugins that don't call {@link ModuleManager#shutdown()} from their onDisable, this event is fired
+     * before onDisable
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDisable(final PluginDisableEvent event) {
+        if (event.getPlugin() == moduleManager.getPlugin()) {
+            moduleManager.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import me.mattstudios.mf.base.CommandBase;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything {@link ModuleManager} registered for a module, so it can be torn down again
+ * @param <P> the plugin
+ * @see ModuleManager#unregister(String)
+ * @since 1.1.0
+ */
+final class ModuleRegistration<P extends JavaPlugin> {
+
+    final Module<P> module;
+    @Nullable
+    final ModuleDescriptor<P> descriptor;
+
+    final List<Listener> listeners = new ArrayList<>();
+    final List<CommandBase> commands = new ArrayList<>();
+    final List<String> completions = new ArrayList<>();
+    final List<CachedCompletionResolver> completionCaches = new ArrayList<>();
+    final List<CoalescingEventExecutor> coalescers = new ArrayList<>();
+
+    ModuleRegistration(@NotNull final Module<P> module, @Nullable final ModuleDescriptor<P> descriptor) {
+        this.module = module;
+        this.descriptor = descriptor;
+    }
+
+}
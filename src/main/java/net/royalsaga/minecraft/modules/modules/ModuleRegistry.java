@@ -0,0 +1,174 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import net.royalsaga.minecraft.modules.placeholders.PlaceholderIndex;
+import net.royalsaga.minecraft.modules.placeholders.PlaceholderProvider;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the modules and placeholder providers of a {@link ModuleManager}. The manager publishes a new
+ * snapshot through a volatile field on every change, so any thread can read a consistent registry without locking.
+ * @param <P> the plugin
+ * @since 1.1.0
+ */
+final class ModuleRegistry<P extends JavaPlugin> {
+
+    private static final ModuleRegistry<?> EMPTY = new ModuleRegistry<>(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    /**
+     * Registered modules by id, in registration order
+     */
+    final Map<String, ModuleRegistration<P>> modules;
+    /**
+     * {@link ModuleManager#registerLazy(ModuleDescriptor) Lazy} modules that were not created yet, by id
+     */
+    final Map<String, ModuleDescriptor<P>> lazyModules;
+    final Map<String, PlaceholderProvider> placeholderProviders;
+    final PlaceholderIndex placeholderIndex;
+
+    private ModuleRegistry(@NotNull final Map<String, ModuleRegistration<P>> modules, @NotNull final Map<String, ModuleDescriptor<P>> lazyModules,
+                           @NotNull final Map<String, PlaceholderProvider> placeholderProviders) {
+        this.modules = modules;
+        this.lazyModules = lazyModules;
+        this.placeholderProviders = placeholderProviders;
+        this.placeholderIndex = PlaceholderIndex.of(placeholderProviders);
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    static <P extends JavaPlugin> ModuleRegistry<P> empty() {
+        return (ModuleRegistry<P>) EMPTY;
+    }
+
+    /**
+     * @return true if the id belongs to a registered or lazy module
+     */
+    boolean contains(@NotNull final String id) {
+        return modules.containsKey(id) || lazyModules.containsKey(id);
+    }
+
+    /**
+     * Add a registered module, replacing the lazy module with the same id
+     * @param registration module registration
+     * @param provider     provider of the module's placeholders, or null if it has none
+     * @return new registry
+     */
+    @NotNull
+    ModuleRegistry<P> withModule(@NotNull final ModuleRegistration<P> registration, @Nullable final PlaceholderProvider provider) {
+        final String id = registration.module.getId();
+
+        final Map<String, ModuleRegistration<P>> modules = new LinkedHashMap<>(this.modules);
+        modules.put(id, registration);
+
+        final Map<String, ModuleDescriptor<P>> lazyModules = copyWithout(this.lazyModules, id);
+
+        return new ModuleRegistry<>(Collections.unmodifiableMap(modules), lazyModules, withProvider(id, provider));
+    }
+
+    /**
+     * Add a lazy module
+     * @param descriptor module descriptor
+     * @param provider   provider activating the module when one of its placeholders is requested, or null
+     * @return new registry
+     */
+    @NotNull
+    ModuleRegistry<P> withLazyModule(@NotNull final ModuleDescriptor<P> descriptor, @Nullable final PlaceholderProvider provider) {
+        final Map<String, ModuleDescriptor<P>> lazyModules = new LinkedHashMap<>(this.lazyModules);
+        lazyModules.put(descriptor.getId(), descriptor);
+
+        return new ModuleRegistry<>(modules, Collections.unmodifiableMap(lazyModules), withProvider(descriptor.getId(), provider));
+    }
+
+    /**
+     * Remove a lazy module that is being created, its placeholder provider is kept until the module is registered
+     * @param id module id
+     * @return new registry
+     */
+    @NotNull
+    ModuleRegistry<P> withoutLazyModule(@NotNull final String id) {
+        if (!lazyModules.containsKey(id)) {
+            return this;
+        }
+
+        return new ModuleRegistry<>(modules, copyWithout(lazyModules, id), placeholderProviders);
+    }
+
+    /**
+     * Remove a placeholder provider
+     * @param id module id
+     * @return new registry
+     */
+    @NotNull
+    ModuleRegistry<P> withoutPlaceholderProvider(@NotNull final String id) {
+        if (!placeholderProviders.containsKey(id)) {
+            return this;
+        }
+
+        return new ModuleRegistry<>(modules, lazyModules, copyWithout(placeholderProviders, id));
+    }
+
+    /**
+     * Remove a registered or lazy module and its placeholder provider
+     * @param id module id
+     * @return new registry
+     */
+    @NotNull
+    ModuleRegistry<P> without(@NotNull final String id) {
+        if (!contains(id) && !placeholderProviders.containsKey(id)) {
+            return this;
+        }
+
+        return new ModuleRegistry<>(copyWithout(modules, id), copyWithout(lazyModules, id), copyWithout(placeholderProviders, id));
+    }
+
+    @NotNull
+    private Map<String, PlaceholderProvider> withProvider(@NotNull final String id, @Nullable final PlaceholderProvider provider) {
+        if (provider == null) {
+            return copyWithout(placeholderProviders, id);
+        }
+
+        final Map<String, PlaceholderProvider> providers = new LinkedHashMap<>(placeholderProviders);
+        providers.put(id, provider);
+        return Collections.unmodifiableMap(providers);
+    }
+
+    @NotNull
+    private static <V> Map<String, V> copyWithout(@NotNull final Map<String, V> map, @NotNull final String id) {
+        if (!map.containsKey(id)) {
+            return map;
+        }
+
+        final Map<String, V> copy = new LinkedHashMap<>(map);
+        copy.remove(id);
+        return copy.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(copy);
+    }
+
+}
@@ -0,0 +1,413 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Scheduler owned by a {@link Module}, everything scheduled through it is cancelled when the module is unregistered.
+ * <ul>
+ *     <li>{@link #runOnMain(Runnable)} queues work on the main thread. The queues of all the modules of a plugin share a
+ *     time budget per tick, {@link ModuleManager#setTickBudget(java.time.Duration) 5 milliseconds} by default: modules
+ *     take turns running one task each until the budget is spent, and the remaining tasks run on the next ticks.</li>
+ *     <li>{@link #runAsync(Runnable)} runs work on the module's own thread pool.</li>
+ *     <li>{@link #runTask(Runnable)}, {@link #runTaskLater(Runnable, long)} and {@link #runTaskTimer(Runnable, long, long)}
+ *     schedule Bukkit tasks that are tracked so they can be cancelled.</li>
+ * </ul>
+ * Work submitted after the module is unregistered is rejected until the module is registered again: the returned futures
+ * are cancelled and Bukkit tasks throw an {@link IllegalStateException}.
+ *
+ * @see Module#getScheduler()
+ * @since 1.1.0
+ */
+public final class ModuleScheduler {
+
+    private static final int ASYNC_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    private final Module<?> module;
+
+    private final Queue<QueuedTask> mainQueue = new ConcurrentLinkedQueue<>();
+    private final Set<BukkitTask> tasks = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    @Nullable
+    private ThreadPoolExecutor asyncPool;
+    @Nullable
+    private AsyncEventDispatcher asyncEvents;
+    @Nullable
+    private Semaphore commandPermits;
+    /**
+     * Whether the module was unregistered, set by {@link #shutdown()} and cleared by {@link #start()}
+     */
+    private volatile boolean shutdown;
+
+    ModuleScheduler(@NotNull final Module<?> module) {
+        this.module = module;
+    }
+
+    /**
+     * Queue a task on the main thread, run within the per-tick budget shared by the modules
+     *
+     * @param task task
+     * @return future completed after the task ran
+     * @since 1.1.0
+     */
+    @NotNull
+    public CompletableFuture<Void> runOnMain(@NotNull final Runnable task) {
+        return supplyOnMain(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queue a task on the main thread, run within the per-tick budget shared by the modules
+     *
+     * @param task task
+     * @param <T>  type of the result
+     * @return future completed with the result of the task
+     * @since 1.1.0
+     */
+    @NotNull
+    public <T> CompletableFuture<T> supplyOnMain(@NotNull final Supplier<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        synchronized (this) {
+            if (shutdown) {
+                future.completeExceptionally(newCancellation());
+                return future;
+            }
+
+            mainQueue.add(new QueuedTask(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+
+                try {
+                    future.complete(task.get());
+                } catch (RuntimeException e) {
+                    module.error("Error in scheduled task", e);
+                    future.completeExceptionally(e);
+                }
+            }, future));
+        }
+
+        TickScheduler.get(module.getPlugin()).add(this);
+        return future;
+    }
+
+    /**
+     * Run a task on the module's thread pool
+     *
+     * @param task task
+     * @return future completed after the task ran
+     * @since 1.1.0
+     */
+    @NotNull
+    public CompletableFuture<Void> runAsync(@NotNull final Runnable task) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a task on the module's thread pool
+     *
+     * @param task task
+     * @param <T>  type of the result
+     * @return future completed with the result of the task
+     * @since 1.1.0
+     */
+    @NotNull
+    public <T> CompletableFuture<T> supplyAsync(@NotNull final Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, getAsyncExecutor());
+        } catch (RejectedExecutionException e) {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(newCancellation());
+            return future;
+        }
+    }
+
+    /**
+     * Get the module's thread pool, created the first time it's used. Its threads stop after a minute without work.
+     *
+     * @return executor
+     * @throws RejectedExecutionException if the module is unregistered
+     * @since 1.1.0
+     */
+    @NotNull
+    public synchronized Executor getAsyncExecutor() {
+        checkRunning();
+
+        if (asyncPool == null) {
+            asyncPool = new ThreadPoolExecutor(ASYNC_THREADS, ASYNC_THREADS, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), newThreadFactory("Async"));
+            asyncPool.allowCoreThreadTimeOut(true);
+        }
+
+        return asyncPool;
+    }
+
+    /**
+     * Run a Bukkit task on the next tick
+     *
+     * @param task task
+     * @return Bukkit task
+     * @throws IllegalStateException if the module is unregistered
+     * @see org.bukkit.scheduler.BukkitScheduler#runTask(Plugin, Runnable)
+     * @since 1.1.0
+     */
+    @NotNull
+    public BukkitTask runTask(@NotNull final Runnable task) {
+        return runTaskLater(task, 0);
+    }
+
+    /**
+     * Run a Bukkit task after a delay
+     *
+     * @param task  task
+     * @param delay delay in ticks
+     * @return Bukkit task
+     * @throws IllegalStateException if the module is unregistered
+     * @see org.bukkit.scheduler.BukkitScheduler#runTaskLater(Plugin, Runnable, long)
+     * @since 1.1.0
+     */
+    @NotNull
+    public BukkitTask runTaskLater(@NotNull final Runnable task, final long delay) {
+        checkTasks();
+
+        final BukkitTask[] holder = new BukkitTask[1];
+        final BukkitTask bukkitTask = Bukkit.getScheduler().runTaskLater(module.getPlugin(), () -> {
+            try {
+                task.run();
+            } finally {
+                if (holder[0] != null) {
+                    tasks.remove(holder[0]);
+                }
+            }
+        }, delay);
+
+        holder[0] = bukkitTask;
+        tasks.add(bukkitTask);
+        return bukkitTask;
+    }
+
+    /**
+     * Run a repeating Bukkit task
+     *
+     * @param task   task
+     * @param delay  delay before the first run, in ticks
+     * @param period period between runs, in ticks
+     * @return Bukkit task
+     * @throws IllegalStateException if the module is unregistered
+     * @see org.bukkit.scheduler.BukkitScheduler#runTaskTimer(Plugin, Runnable, long, long)
+     * @since 1.1.0
+     */
+    @NotNull
+    public BukkitTask runTaskTimer(@NotNull final Runnable task, final long delay, final long period) {
+        checkTasks();
+        tasks.removeIf(BukkitTask::isCancelled);
+
+        final BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(module.getPlugin(), task, delay, period);
+        tasks.add(bukkitTask);
+        return bukkitTask;
+    }
+
+    /**
+     * @return number of tasks queued with {@link #runOnMain(Runnable)} that didn't run yet
+     * @since 1.1.0
+     */
+    public int getQueuedTasks() {
+        return mainQueue.size();
+    }
+
+    /**
+     * Run the next queued main thread task
+     *
+     * @return false if there was no task
+     */
+    boolean runNext() {
+        final QueuedTask task = mainQueue.poll();
+
+        if (task == null) {
+            return false;
+        }
+
+        task.runnable.run();
+        return true;
+    }
+
+    @NotNull
+    ThreadFactory newThreadFactory(@NotNull final String name) {
+        final ClassLoader classLoader = module.getPlugin().getClass().getClassLoader();
+
+        return runnable -> {
+            final Thread thread = new Thread(runnable, String.format("%s %s %s #%d", module.getPlugin().getName(), module.getId(), name, threadCount.getAndIncrement()));
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        };
+    }
+
+    /**
+     * Get the executor of the module's {@link net.royalsaga.minecraft.modules.annotations.AsyncEventHandler}s, created
+     * the first time it's used
+     */
+    @NotNull
+    synchronized AsyncEventDispatcher getAsyncEvents(@NotNull final Supplier<AsyncEventDispatcher> factory) {
+        checkRunning();
+
+        if (asyncEvents == null) {
+            asyncEvents = factory.get();
+        }
+
+        return asyncEvents;
+    }
+
+    /**
+     * Get the permits limiting the number of {@link net.royalsaga.minecraft.modules.annotations.AsyncCommand async commands}
+     * of the module running at once, created the first time they're used
+     */
+    @NotNull
+    synchronized Semaphore getCommandPermits(final int limit) {
+        if (commandPermits == null) {
+            commandPermits = new Semaphore(limit);
+        }
+
+        return commandPermits;
+    }
+
+    /**
+     * Accept work again, called when the module is registered
+     */
+    void start() {
+        shutdown = false;
+    }
+
+    /**
+     * Cancel the Bukkit tasks and the queued main thread tasks, stop the thread pools once their queued tasks ran, and
+     * reject work until {@link #start()} is called
+     *
+     * @return the stopped thread pools, to wait for
+     */
+    @NotNull
+    synchronized List<Termination> shutdown() {
+        shutdown = true;
+        TickScheduler.get(module.getPlugin()).remove(this);
+
+        QueuedTask task;
+
+        while ((task = mainQueue.poll()) != null) {
+            task.future.completeExceptionally(newCancellation());
+        }
+
+        tasks.forEach(BukkitTask::cancel);
+        tasks.clear();
+
+        final List<Termination> terminations = new ArrayList<>();
+
+        if (asyncPool != null) {
+            final ThreadPoolExecutor pool = asyncPool;
+            pool.shutdown();
+            terminations.add(timeout -> pool.awaitTermination(timeout, TimeUnit.NANOSECONDS));
+            asyncPool = null;
+        }
+
+        if (asyncEvents != null) {
+            final AsyncEventDispatcher dispatcher = asyncEvents;
+            dispatcher.shutdown();
+            terminations.add(dispatcher::awaitTermination);
+            asyncEvents = null;
+        }
+
+        return terminations;
+    }
+
+    private void checkRunning() {
+        if (shutdown) {
+            throw new RejectedExecutionException("Module " + module.getId() + " is not registered");
+        }
+    }
+
+    private void checkTasks() {
+        if (shutdown) {
+            throw new IllegalStateException("Module " + module.getId() + " is not registered");
+        }
+    }
+
+    @NotNull
+    private CancellationException newCancellation() {
+        return new CancellationException("Module " + module.getId() + " was unregistered");
+    }
+
+    /**
+     * Wait for a stopped thread pool
+     */
+    @FunctionalInterface
+    interface Termination {
+
+        /**
+         * @param timeout maximum time to wait, in nanoseconds
+         * @return true if all the tasks ran
+         */
+        boolean await(final long timeout) throws InterruptedException;
+
+    }
+
+    private static final class QueuedTask {
+
+        private final Runnable runnable;
+        private final CompletableFuture<?> future;
+
+        private QueuedTask(@NotNull final Runnable runnable, @NotNull final CompletableFuture<?> future) {
+            this.runnable = runnable;
+            this.future = future;
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import me.mattstudios.mf.annotations.Command;
+import me.mattstudios.mf.annotations.Completion;
+import me.mattstudios.mf.annotations.Optional;
+import me.mattstudios.mf.annotations.Permission;
+import me.mattstudios.mf.annotations.SubCommand;
+import me.mattstudios.mf.base.CommandBase;
+import net.royalsaga.minecraft.modules.metrics.LatencyHistogram;
+import net.royalsaga.minecraft.modules.metrics.ModuleMetrics;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Admin command showing the {@link ModuleMetrics} of the registered modules
+ * @see ModuleManager#registerAdminCommand()
+ * @since 1.1.0
+ */
+@Command("modules")
+public final class ModulesCommand extends CommandBase {
+
+    static final String PERMISSION = "modules.admin";
+    static final String MODULES_COMPLETION = "#modules";
+
+    private final ModuleManager<?> moduleManager;
+
+    ModulesCommand(@NotNull final ModuleManager<?> moduleManager) {
+        this.moduleManager = moduleManager;
+    }
+
+    @SubCommand("metrics")
+    @Permission(PERMISSION)
+    public void metrics(final CommandSender sender, @Optional @Completion(MODULES_COMPLETION) @Nullable final String id) {
+        final List<ModuleMetrics> metrics = getMetrics(sender, id);
+
+        if (metrics == null) {
+            return;
+        }
+
+        // Modules spending the most time first
+        metrics.sort(Comparator.comparingLong(ModulesCommand::getTotal).reversed());
+
+        for (final ModuleMetrics it : metrics) {
+            sender.sendMessage(String.format("%s (%.3fms total)", it.getId(), getTotal(it) / 1_000_000.0));
+            send(sender, "events", it.getEvents());
+            send(sender, "commands", it.getCommands());
+            send(sender, "placeholders", it.getPlaceholders());
+            send(sender, "placeholder batches", it.getPlaceholderBatches());
+            send(sender, "async events", it.getAsyncEvents());
+
+            if (it.getDroppedAsyncEvents() > 0) {
+                sender.sendMessage("  dropped async events: " + it.getDroppedAsyncEvents());
+            }
+
+            send(sender, "async commands", it.getAsyncCommands());
+
+            if (it.getTimedOutAsyncCommands() > 0) {
+                sender.sendMessage("  timed out async commands: " + it.getTimedOutAsyncCommands());
+            }
+        }
+    }
+
+    @SubCommand("reset")
+    @Permission(PERMISSION)
+    public void reset(final CommandSender sender, @Optional @Completion(MODULES_COMPLETION) @Nullable final String id) {
+        final List<ModuleMetrics> metrics = getMetrics(sender, id);
+
+        if (metrics == null) {
+            return;
+        }
+
+        metrics.forEach(ModuleMetrics::reset);
+        sender.sendMessage(id == null ? "Metrics of all the modules reset" : "Metrics of " + id + " reset");
+    }
+
+    /**
+     * @return metrics of a module, or of all the modules if the id is null, or null if the module is not registered
+     */
+    @Nullable
+    private List<ModuleMetrics> getMetrics(@NotNull final CommandSender sender, @Nullable final String id) {
+        if (id == null) {
+            return new ArrayList<>(moduleManager.getMetrics().values());
+        }
+
+        final ModuleMetrics metrics = moduleManager.getMetrics(id);
+
+        if (metrics == null) {
+            sender.sendMessage("Module " + id + " is not registered");
+            return null;
+        }
+
+        return new ArrayList<>(Collections.singletonList(metrics));
+    }
+
+    private static void send(@NotNull final CommandSender sender, @NotNull final String name, @NotNull final LatencyHistogram histogram) {
+        if (histogram.getCount() > 0) {
+            sender.sendMessage("  " + name + ": " + histogram);
+        }
+    }
+
+    private static long getTotal(@NotNull final ModuleMetrics metrics) {
+        return metrics.getEvents().getTotal() + metrics.getCommands().getTotal() + metrics.getPlaceholders().getTotal()
+                + metrics.getPlaceholderBatches().getTotal();
+    }
+
+}
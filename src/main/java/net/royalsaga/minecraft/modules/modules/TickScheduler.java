@@ -0,0 +1,131 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task running the main thread queues of the {@link ModuleScheduler}s of a plugin every tick, within a time budget.
+ * Schedulers take turns running one task each, and the scheduler that starts changes every tick.
+ * @since 1.1.0
+ */
+final class TickScheduler implements Runnable {
+
+    private static final Map<Plugin, TickScheduler> instances = new HashMap<>();
+
+    private final Plugin plugin;
+    private final List<ModuleScheduler> schedulers = new CopyOnWriteArrayList<>();
+
+    private volatile long budget = TimeUnit.MILLISECONDS.toNanos(5);
+    private BukkitTask task;
+    private int next;
+
+    private TickScheduler(@NotNull final Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @NotNull
+    static synchronized TickScheduler get(@NotNull final Plugin plugin) {
+        return instances.computeIfAbsent(plugin, TickScheduler::new);
+    }
+
+    /**
+     * Stop the task of a plugin, called when the plugin is disabled
+     * @param plugin plugin
+     */
+    static synchronized void stop(@NotNull final Plugin plugin) {
+        final TickScheduler scheduler = instances.remove(plugin);
+
+        if (scheduler != null) {
+            scheduler.cancel();
+        }
+    }
+
+    synchronized void add(@NotNull final ModuleScheduler scheduler) {
+        if (!schedulers.contains(scheduler)) {
+            schedulers.add(scheduler);
+        }
+
+        if (task == null && plugin.isEnabled()) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1, 1);
+        }
+    }
+
+    synchronized void remove(@NotNull final ModuleScheduler scheduler) {
+        schedulers.remove(scheduler);
+    }
+
+    private synchronized void cancel() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    void setBudget(final long budget) {
+        this.budget = budget;
+    }
+
+    long getBudget() {
+        return budget;
+    }
+
+    @Override
+    public void run() {
+        // Tasks may unregister modules, so iterate over the schedulers of the start of the tick
+        final ModuleScheduler[] schedulers = this.schedulers.toArray(new ModuleScheduler[0]);
+
+        if (schedulers.length == 0) {
+            return;
+        }
+
+        final long deadline = System.nanoTime() + budget;
+        final int start = next = (next + 1) % schedulers.length;
+        boolean ran = true;
+
+        while (ran) {
+            ran = false;
+
+            for (int i = 0; i < schedulers.length; i++) {
+                if (schedulers[(start + i) % schedulers.length].runNext()) {
+                    ran = true;
+
+                    if (System.nanoTime() - deadline >= 0) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,381 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.modules;
+
+import me.mattstudios.mf.annotations.Alias;
+import me.mattstudios.mf.annotations.Default;
+import me.mattstudios.mf.annotations.SubCommand;
+import me.mattstudios.mf.base.CommandBase;
+import me.mattstudios.mf.base.MessageHandler;
+import me.mattstudios.mf.base.components.MessageResolver;
+import net.royalsaga.minecraft.modules.annotations.AsyncCommand;
+import net.royalsaga.minecraft.modules.metrics.ModuleMetrics;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bukkit command that replaces the command registered by {@link me.mattstudios.mf.base.CommandManager} in the server's
+ * {@link org.bukkit.command.CommandMap} and records how long it takes to execute and tab complete.
+ * Time spent in a command label shared by many modules is recorded for the module of the {@link SubCommand} matching the
+ * first argument, or of the label's {@link Default} method.
+ * <p>
+ * Subcommands annotated with {@link AsyncCommand} are executed on their module's thread pool, they're found by matching
+ * the first argument against the {@link SubCommand}s of the label, falling back to its {@link Default} method, like
+ * matt-framework does.
+ * <p>
+ * Subcommands are tracked per {@link CommandBase}, so the commands of one module can be removed while the label stays
+ * registered for the other modules sharing it. matt-framework can't remove subcommands, so the removed ones that no
+ * remaining command provides are refused here with the {@link ModuleManager#COMMAND_UNAVAILABLE_MESSAGE} message.
+ * @see ModuleManager#getMetrics(String)
+ * @since 1.1.0
+ */
+final class TimedCommand extends Command {
+
+    private final Command command;
+    private final MessageHandler messages;
+
+    /**
+     * Commands registered under this label and the module they belong to, in registration order
+     */
+    private final Map<CommandBase, Owner> owners = new LinkedHashMap<>();
+
+    /**
+     * Names and aliases of all the subcommands of the label
+     */
+    private final Set<String> subCommands = new HashSet<>();
+    /**
+     * Module of each subcommand name and alias
+     */
+    private final Map<String, Owner> subCommandOwners = new HashMap<>();
+    @Nullable
+    private Owner defaultOwner;
+    /**
+     * Names and aliases of the subcommands of removed commands that no remaining command provides
+     */
+    private final Set<String> removedSubCommands = new HashSet<>();
+    private final Map<String, AsyncTarget> asyncSubCommands = new HashMap<>();
+    @Nullable
+    private AsyncTarget asyncDefault;
+
+    TimedCommand(@NotNull final Command command, @NotNull final MessageHandler messages) {
+        super(command.getName(), command.getDescription(), command.getUsage(), command.getAliases());
+        this.command = command;
+        this.messages = messages;
+        setPermission(command.getPermission());
+    }
+
+    /**
+     * Register the default messages sent to the senders of commands, keeping the ones the plugin already registered
+     * @param messages message handler of the command manager
+     */
+    static void registerMessages(@NotNull final MessageHandler messages) {
+        registerMessage(messages, ModuleManager.ASYNC_COMMAND_BUSY_MESSAGE,
+                sender -> sender.sendMessage("Too many commands are running, try again later."));
+        registerMessage(messages, ModuleManager.ASYNC_COMMAND_REJECTED_MESSAGE,
+                sender -> sender.sendMessage("This command can't be executed right now, try again later."));
+        registerMessage(messages, ModuleManager.ASYNC_COMMAND_TIMEOUT_MESSAGE,
+                sender -> sender.sendMessage("The command timed out."));
+        registerMessage(messages, ModuleManager.COMMAND_UNAVAILABLE_MESSAGE,
+                sender -> sender.sendMessage("This command is not available right now."));
+    }
+
+    private static void registerMessage(@NotNull final MessageHandler messages, @NotNull final String id, @NotNull final MessageResolver resolver) {
+        if (!messages.hasId(id)) {
+            messages.register(id, resolver);
+        }
+    }
+
+    /**
+     * Add the subcommands of a command registered under this label
+     * @param command command
+     * @param module  module of the command
+     * @param metrics metrics of the module, the command durations are recorded to
+     * @param limit   maximum number of async commands the module runs at once
+     */
+    void addSubCommands(@NotNull final CommandBase command, @NotNull final Module<?> module, @NotNull final ModuleMetrics metrics,
+                        final int limit) {
+        owners.put(command, new Owner(module, metrics, limit));
+        indexSubCommands();
+    }
+
+    /**
+     * Remove the subcommands of a command, called when its module is unregistered
+     * @param command command
+     * @return true if no command is left under this label
+     */
+    boolean removeSubCommands(@NotNull final CommandBase command) {
+        if (owners.remove(command) != null) {
+            final Set<String> removed = new HashSet<>(subCommands);
+            indexSubCommands();
+            removed.removeAll(subCommands);
+            removedSubCommands.addAll(removed);
+        }
+
+        return owners.isEmpty();
+    }
+
+    /**
+     * Index the subcommands of all the commands registered under this label, later commands replace the subcommands of
+     * earlier ones like they do in matt-framework
+     */
+    private void indexSubCommands() {
+        subCommands.clear();
+        subCommandOwners.clear();
+        asyncSubCommands.clear();
+        defaultOwner = null;
+        asyncDefault = null;
+
+        owners.forEach(this::indexSubCommands);
+        removedSubCommands.removeAll(subCommands);
+    }
+
+    /**
+     * Find the subcommands and the {@link AsyncCommand} methods of a command
+     * @param command command
+     * @param owner   module of the command
+     */
+    private void indexSubCommands(@NotNull final CommandBase command, @NotNull final Owner owner) {
+        final AsyncCommand classAsync = command.getClass().getAnnotation(AsyncCommand.class);
+
+        for (final Method method : command.getClass().getMethods()) {
+            final SubCommand subCommand = method.getAnnotation(SubCommand.class);
+            final boolean isDefault = method.isAnnotationPresent(Default.class);
+
+            if (subCommand == null && !isDefault) {
+                continue;
+            }
+
+            final AsyncCommand async = method.isAnnotationPresent(AsyncCommand.class) ? method.getAnnotation(AsyncCommand.class) : classAsync;
+            final AsyncTarget target = async == null ? null : new AsyncTarget(owner, async.timeout());
+
+            if (isDefault) {
+                defaultOwner = owner;
+                asyncDefault = target;
+            }
+
+            if (subCommand == null) {
+                continue;
+            }
+
+            final Set<String> names = new HashSet<>();
+            names.add(subCommand.value().toLowerCase(Locale.ENGLISH));
+
+            final Alias alias = method.getAnnotation(Alias.class);
+
+            if (alias != null) {
+                for (final String it : alias.value()) {
+                    names.add(it.toLowerCase(Locale.ENGLISH));
+                }
+            }
+
+            for (final String name : names) {
+                subCommands.add(name);
+                subCommandOwners.put(name, owner);
+
+                if (target == null) {
+                    asyncSubCommands.remove(name);
+                } else {
+                    asyncSubCommands.put(name, target);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean execute(@NotNull final CommandSender sender, @NotNull final String commandLabel, @NotNull final String[] args) {
+        final long start = System.nanoTime();
+        final Owner owner = getOwner(args);
+
+        try {
+            if (args.length > 0 && removedSubCommands.contains(args[0].toLowerCase(Locale.ENGLISH))) {
+                messages.sendMessage(ModuleManager.COMMAND_UNAVAILABLE_MESSAGE, sender);
+                return true;
+            }
+
+            final AsyncTarget target = args.length > 0 && subCommands.contains(args[0].toLowerCase(Locale.ENGLISH))
+                    ? asyncSubCommands.get(args[0].toLowerCase(Locale.ENGLISH))
+                    : asyncDefault;
+
+            if (target != null) {
+                executeAsync(target, sender, commandLabel, args);
+                return true;
+            }
+
+            return command.execute(sender, commandLabel, args);
+        } finally {
+            if (owner != null) {
+                owner.metrics.getCommands().recordSince(start);
+            }
+        }
+    }
+
+    /**
+     * Find the module arguments are executed or tab completed by, like {@link #execute(CommandSender, String, String[])}
+     * finds the async subcommands
+     * @param args arguments
+     * @return module of the subcommand matching the first argument, or of the {@link Default} method, or of the first
+     * command registered under this label, or null if the first argument is a removed subcommand or no command is left
+     */
+    @Nullable
+    private Owner getOwner(@NotNull final String[] args) {
+        if (args.length > 0) {
+            final String name = args[0].toLowerCase(Locale.ENGLISH);
+
+            if (subCommands.contains(name)) {
+                return subCommandOwners.get(name);
+            }
+
+            if (removedSubCommands.contains(name)) {
+                return null;
+            }
+        }
+
+        if (defaultOwner != null) {
+            return defaultOwner;
+        }
+
+        return owners.isEmpty() ? null : owners.values().iterator().next();
+    }
+
+    private void executeAsync(@NotNull final AsyncTarget target, @NotNull final CommandSender sender, @NotNull final String commandLabel,
+                              @NotNull final String[] args) {
+        final Module<?> module = target.owner.module;
+        final ModuleMetrics metrics = target.owner.metrics;
+        final ModuleScheduler scheduler = module.getScheduler();
+        final Semaphore permits = scheduler.getCommandPermits(target.owner.limit);
+
+        if (!permits.tryAcquire()) {
+            messages.sendMessage(ModuleManager.ASYNC_COMMAND_BUSY_MESSAGE, sender);
+            return;
+        }
+
+        // Set by whichever runs first, the command or the cancellation of a command that never started
+        final AtomicBoolean started = new AtomicBoolean();
+        final FutureTask<Boolean> task = new FutureTask<Boolean>(() -> {
+            if (!started.compareAndSet(false, true)) {
+                return false;
+            }
+
+            final long start = System.nanoTime();
+
+            // Released when the command returns, not when it's cancelled, so interrupted commands still count until they stop
+            try {
+                return command.execute(sender, commandLabel, args);
+            } catch (RuntimeException e) {
+                module.error("Error while executing /" + commandLabel + " " + String.join(" ", args), e);
+                return false;
+            } finally {
+                metrics.getAsyncCommands().recordSince(start);
+                permits.release();
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (started.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        };
+
+        try {
+            scheduler.getAsyncExecutor().execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            messages.sendMessage(ModuleManager.ASYNC_COMMAND_REJECTED_MESSAGE, sender);
+            return;
+        }
+
+        if (target.timeout > 0) {
+            scheduler.runTaskLater(() -> {
+                if (task.cancel(true)) {
+                    metrics.incrementTimedOutAsyncCommands();
+                    messages.sendMessage(ModuleManager.ASYNC_COMMAND_TIMEOUT_MESSAGE, sender);
+                }
+            }, target.timeout * 20L);
+        }
+    }
+
+    @NotNull
+    @Override
+    public List<String> tabComplete(@NotNull final CommandSender sender, @NotNull final String alias, @NotNull final String[] args) {
+        final long start = System.nanoTime();
+        final Owner owner = getOwner(args);
+        CachedCompletionResolver.setPrefix(args.length == 0 ? null : args[args.length - 1]);
+
+        try {
+            return command.tabComplete(sender, alias, args);
+        } finally {
+            CachedCompletionResolver.setPrefix(null);
+
+            if (owner != null) {
+                owner.metrics.getCommands().recordSince(start);
+            }
+        }
+    }
+
+    private static final class Owner {
+
+        private final Module<?> module;
+        private final ModuleMetrics metrics;
+        private final int limit;
+
+        private Owner(@NotNull final Module<?> module, @NotNull final ModuleMetrics metrics, final int limit) {
+            this.module = module;
+            this.metrics = metrics;
+            this.limit = limit;
+        }
+
+    }
+
+    private static final class AsyncTarget {
+
+        private final Owner owner;
+        /**
+         * Timeout in seconds, 0 for none
+         */
+        private final int timeout;
+
+        private AsyncTarget(@NotNull final Owner owner, final int timeout) {
+            this.owner = owner;
+            this.timeout = timeout;
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.placeholders;
+
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Placeholder provider for values that are slow to compute, for example values loaded from a database.
+ *
+ * <p>{@link #parseAsync(OfflinePlayer, String)} is always called off the main thread. Placeholder requests are answered
+ * with the last completed value, and a refresh is started in the background once that value is older than
+ * {@link #getRefreshInterval()}.</p>
+ *
+ * @see PrefetchingPlaceholderProvider
+ * @since 1.1.0
+ */
+public interface AsyncPlaceholderProvider {
+
+    @NotNull
+    CompletableFuture<String> parseAsync(@Nullable final OfflinePlayer offlinePlayer, @NotNull String params);
+
+    /**
+     * Get how old a value can be before a refresh is started
+     * @return refresh interval
+     * @since 1.1.0
+     */
+    @NotNull
+    default Duration getRefreshInterval() {
+        return Duration.ofSeconds(5);
+    }
+
+    /**
+     * Get how long a value can take to load before it's considered lost and loaded again, a late value is ignored
+     * @return timeout
+     * @since 1.1.0
+     */
+    @NotNull
+    default Duration getTimeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    /**
+     * Get the maximum amount of values kept for this provider, the least recently used values are evicted first
+     * @return maximum amount of values
+     * @since 1.1.0
+     */
+    default int getCacheSize() {
+        return 1000;
+    }
+
+    /**
+     * Get the value returned while the first value for a player and params is being loaded
+     * @param params params
+     * @return value to show until a value is loaded
+     * @since 1.1.0
+     */
+    @Nullable
+    default String getPendingValue(@NotNull final String params) {
+        return "";
+    }
+
+}
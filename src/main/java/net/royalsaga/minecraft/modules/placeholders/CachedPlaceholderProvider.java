@@ -0,0 +1,146 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.placeholders;
+
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link PlaceholderProvider} that caches the values of another provider for its {@link PlaceholderProvider#getCacheTtl() TTL}
+ *
+ * @see net.royalsaga.minecraft.modules.modules.ModuleManager#register(net.royalsaga.minecraft.modules.modules.Module)
+ * @since 1.1.0
+ */
+public final class CachedPlaceholderProvider implements PlaceholderProvider {
+
+    private final PlaceholderProvider provider;
+    private final PlaceholderCache cache;
+    private final long ttl;
+
+    /**
+     * @param provider provider whose values are cached, with a positive {@link PlaceholderProvider#getCacheTtl() TTL}
+     * @since 1.1.0
+     */
+    public CachedPlaceholderProvider(@NotNull final PlaceholderProvider provider) {
+        this.provider = provider;
+        this.cache = new PlaceholderCache(provider.getCacheSize());
+        this.ttl = provider.getCacheTtl().toNanos();
+
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Cache TTL must be positive, got " + provider.getCacheTtl());
+        }
+    }
+
+    @Override
+    public @Nullable String parse(@Nullable final OfflinePlayer offlinePlayer, @NotNull final String params) {
+        final UUID uuid = offlinePlayer == null ? null : offlinePlayer.getUniqueId();
+        final long now = System.nanoTime();
+        final PlaceholderCache.Entry entry = cache.get(uuid, params);
+
+        if (entry != null && now - entry.getTime() < ttl) {
+            return entry.getValue();
+        }
+
+        final String value = provider.parse(offlinePlayer, params);
+        cache.put(uuid, params, value, now);
+        return value;
+    }
+
+    /**
+     * Serve the batch from the cache when every value is fresh, otherwise parse the whole batch
+     * with the provider's {@link PlaceholderProvider#parseAll(List, List)} and cache the result
+     */
+    @Override
+    public @NotNull PlaceholderTable parseAll(@NotNull final List<? extends OfflinePlayer> players, @NotNull final List<String> params) {
+        final PlaceholderTable cached = new PlaceholderTable(players, params);
+        final long now = System.nanoTime();
+
+        for (int row = 0; row < players.size(); row++) {
+            final OfflinePlayer player = players.get(row);
+            final UUID uuid = player == null ? null : player.getUniqueId();
+
+            for (int column = 0; column < params.size(); column++) {
+                final PlaceholderCache.Entry entry = cache.get(uuid, params.get(column));
+
+                if (entry == null || now - entry.getTime() >= ttl) {
+                    return parseAndCache(players, params, now);
+                }
+
+                cached.set(row, column, entry.getValue());
+            }
+        }
+
+        return cached;
+    }
+
+    @NotNull
+    private PlaceholderTable parseAndCache(@NotNull final List<? extends OfflinePlayer> players, @NotNull final List<String> params, final long now) {
+        final PlaceholderTable table = provider.parseAll(players, params);
+
+        for (int row = 0; row < players.size(); row++) {
+            final OfflinePlayer player = players.get(row);
+            final UUID uuid = player == null ? null : player.getUniqueId();
+
+            for (int column = 0; column < params.size(); column++) {
+                cache.put(uuid, params.get(column), table.get(row, column), now);
+            }
+        }
+
+        return table;
+    }
+
+    @Override
+    public @NotNull Duration getCacheTtl() {
+        return provider.getCacheTtl();
+    }
+
+    @Override
+    public int getCacheSize() {
+        return provider.getCacheSize();
+    }
+
+    /**
+     * @return the provider whose values are cached
+     * @since 1.1.0
+     */
+    @NotNull
+    public PlaceholderProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return the cache holding the values
+     * @since 1.1.0
+     */
+    @NotNull
+    public PlaceholderCache getCache() {
+        return cache;
+    }
+
+}
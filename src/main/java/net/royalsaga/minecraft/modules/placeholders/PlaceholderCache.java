@@ -0,0 +1,259 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.placeholders;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Bounded cache of placeholder values keyed by player {@link UUID} and params.
+ * When full, the least recently used value is evicted.
+ *
+ * <p>All methods are synchronized, so the cache can be used from PlaceholderAPI's async callers.</p>
+ *
+ * @see CachedPlaceholderProvider
+ * @since 1.1.0
+ */
+public final class PlaceholderCache {
+
+    private final Map<Key, Entry> entries;
+    private final Map<Key, Loading> loading = new HashMap<>();
+
+    /**
+     * @param maximumSize maximum amount of cached values
+     * @since 1.1.0
+     */
+    public PlaceholderCache(final int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive, got " + maximumSize);
+        }
+
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Get a cached value
+     *
+     * @param uuid   player's uuid, null for placeholders parsed without a player
+     * @param params params
+     * @return cached entry if found, otherwise null
+     * @since 1.1.0
+     */
+    @Nullable
+    public synchronized Entry get(@Nullable final UUID uuid, @NotNull final String params) {
+        return entries.get(new Key(uuid, params));
+    }
+
+    /**
+     * Cache a value
+     *
+     * @param uuid   player's uuid, null for placeholders parsed without a player
+     * @param params params
+     * @param value  parsed value
+     * @param time   {@link System#nanoTime()} at which the value was parsed
+     * @return the new entry
+     * @since 1.1.0
+     */
+    @NotNull
+    public synchronized Entry put(@Nullable final UUID uuid, @NotNull final String params, @Nullable final String value, final long time) {
+        final Key key = new Key(uuid, params);
+        final Entry entry = new Entry(value, time);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Mark a value as being loaded, so only one load is in flight per player and params.
+     * The mark is cleared by {@link #complete(Loading, String, long)}, {@link #cancel(Loading)},
+     * {@link #invalidate(UUID)}, or replaced by the next call once it's older than the timeout.
+     *
+     * @param uuid    player's uuid, null for placeholders parsed without a player
+     * @param params  params
+     * @param timeout nanoseconds after which a load that didn't complete is considered lost
+     * @return the mark if the caller should load the value, null if it is already being loaded
+     * @since 1.1.0
+     */
+    @Nullable
+    public synchronized Loading startLoading(@Nullable final UUID uuid, @NotNull final String params, final long timeout) {
+        final Key key = new Key(uuid, params);
+        final Loading current = loading.get(key);
+        final long now = System.nanoTime();
+
+        if (current != null && now - current.time < timeout) {
+            return null;
+        }
+
+        final Loading mark = new Loading(key, now);
+        loading.put(key, mark);
+        return mark;
+    }
+
+    /**
+     * Cache the value of a load and clear its mark, unless the load timed out or the player's values were invalidated
+     * since it started
+     *
+     * @param mark  mark returned by {@link #startLoading(UUID, String, long)}
+     * @param value parsed value
+     * @param time  {@link System#nanoTime()} at which the value was parsed
+     * @return true if the value was cached
+     * @since 1.1.0
+     */
+    public synchronized boolean complete(@NotNull final Loading mark, @Nullable final String value, final long time) {
+        if (!loading.remove(mark.key, mark)) {
+            return false;
+        }
+
+        entries.put(mark.key, new Entry(value, time));
+        return true;
+    }
+
+    /**
+     * Clear the mark of a load without caching anything
+     *
+     * @param mark mark returned by {@link #startLoading(UUID, String, long)}
+     * @since 1.1.0
+     */
+    public synchronized void cancel(@NotNull final Loading mark) {
+        loading.remove(mark.key, mark);
+    }
+
+    /**
+     * Remove all the values cached for a player, values still being loaded for the player are dropped when they complete
+     *
+     * @param uuid player's uuid
+     * @since 1.1.0
+     */
+    public synchronized void invalidate(@NotNull final UUID uuid) {
+        entries.keySet().removeIf(key -> uuid.equals(key.uuid));
+        loading.keySet().removeIf(key -> uuid.equals(key.uuid));
+    }
+
+    /**
+     * Remove all the cached values
+     *
+     * @since 1.1.0
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        loading.clear();
+    }
+
+    /**
+     * @return amount of cached values
+     * @since 1.1.0
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Cached placeholder value
+     *
+     * @since 1.1.0
+     */
+    public static final class Entry {
+
+        private final String value;
+        private final long time;
+
+        private Entry(@Nullable final String value, final long time) {
+            this.value = value;
+            this.time = time;
+        }
+
+        @Nullable
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * @return {@link System#nanoTime()} at which the value was parsed
+         */
+        public long getTime() {
+            return time;
+        }
+
+    }
+
+    /**
+     * Mark of a value being loaded
+     *
+     * @see #startLoading(UUID, String, long)
+     * @since 1.1.0
+     */
+    public static final class Loading {
+
+        private final Key key;
+        private final long time;
+
+        private Loading(@NotNull final Key key, final long time) {
+            this.key = key;
+            this.time = time;
+        }
+
+    }
+
+    private static final class Key {
+
+        private final UUID uuid;
+        private final String params;
+
+        private Key(@Nullable final UUID uuid, @NotNull final String params) {
+            this.uuid = uuid;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key key = (Key) o;
+            return Objects.equals(uuid, key.uuid) && params.equals(key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(uuid) + params.hashCode();
+        }
+
+    }
+
+}
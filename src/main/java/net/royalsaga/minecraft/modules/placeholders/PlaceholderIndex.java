@@ -0,0 +1,185 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.placeholders;
+
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Immutable lookup table of {@link PlaceholderProvider}s by module id.
+ *
+ * <p>Ids are stored in an open addressing table so a provider can be found from a region of the
+ * placeholder params (everything before the first {@code _}) without creating substrings or arrays.</p>
+ *
+ * @see net.royalsaga.minecraft.modules.modules.ModuleManager#parsePlaceholder(OfflinePlayer, String)
+ * @since 1.1.0
+ */
+public final class PlaceholderIndex {
+
+    private static final PlaceholderIndex EMPTY = new PlaceholderIndex(new String[1], new int[1], new PlaceholderProvider[1], 0);
+
+    private final String[] ids;
+    private final int[] hashes;
+    private final PlaceholderProvider[] providers;
+    private final int size;
+
+    private PlaceholderIndex(@NotNull final String[] ids, final int[] hashes, @NotNull final PlaceholderProvider[] providers, final int size) {
+        this.ids = ids;
+        this.hashes = hashes;
+        this.providers = providers;
+        this.size = size;
+    }
+
+    /**
+     * Get an index without providers
+     *
+     * @return empty index
+     * @since 1.1.0
+     */
+    @NotNull
+    public static PlaceholderIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build an index from a map of providers and their module id
+     *
+     * @param providers map of {@link PlaceholderProvider}s and their module id
+     * @return new index
+     * @since 1.1.0
+     */
+    @NotNull
+    public static PlaceholderIndex of(@NotNull final Map<String, ? extends PlaceholderProvider> providers) {
+        if (providers.isEmpty()) {
+            return EMPTY;
+        }
+
+        // Keep the load factor at or below 0.5 so probe sequences stay short
+        final int capacity = Integer.highestOneBit(providers.size()) << 2;
+
+        final String[] ids = new String[capacity];
+        final int[] hashes = new int[capacity];
+        final PlaceholderProvider[] table = new PlaceholderProvider[capacity];
+
+        for (final Map.Entry<String, ? extends PlaceholderProvider> entry : providers.entrySet()) {
+            final int hash = entry.getKey().hashCode();
+            int slot = spread(hash) & (capacity - 1);
+
+            while (ids[slot] != null) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+
+            ids[slot] = entry.getKey();
+            hashes[slot] = hash;
+            table[slot] = entry.getValue();
+        }
+
+        return new PlaceholderIndex(ids, hashes, table, providers.size());
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Get the provider registered with the given module id
+     *
+     * @param id module id
+     * @return provider if found, otherwise null
+     * @since 1.1.0
+     */
+    @Nullable
+    public PlaceholderProvider get(@NotNull final String id) {
+        return find(id, 0, id.length());
+    }
+
+    /**
+     * Get the provider whose module id equals the characters of {@code text} between {@code start} (inclusive)
+     * and {@code end} (exclusive). No objects are allocated by this lookup.
+     *
+     * @param text  text containing the module id
+     * @param start start index of the module id
+     * @param end   end index of the module id
+     * @return provider if found, otherwise null
+     * @since 1.1.0
+     */
+    @Nullable
+    public PlaceholderProvider find(@NotNull final String text, final int start, final int end) {
+        if (size == 0) {
+            return null;
+        }
+
+        // Same function as String#hashCode, so it matches the hashes of the registered ids
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+
+        final int mask = ids.length - 1;
+        final int length = end - start;
+
+        for (int slot = spread(hash) & mask; ids[slot] != null; slot = (slot + 1) & mask) {
+            final String id = ids[slot];
+
+            if (hashes[slot] == hash && id.length() == length && id.regionMatches(0, text, start, length)) {
+                return providers[slot];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Parse a placeholder in the {@code <module id>_<params>} format
+     *
+     * @param player player
+     * @param params module id followed by the provider params
+     * @return value returned by the provider, or null if there is no provider for the module id
+     * @see PlaceholderProvider#parse(OfflinePlayer, String)
+     * @since 1.1.0
+     */
+    @Nullable
+    public String parse(@Nullable final OfflinePlayer player, @NotNull final String params) {
+        final int separator = params.indexOf('_');
+        final PlaceholderProvider provider = find(params, 0, separator == -1 ? params.length() : separator);
+
+        if (provider == null) {
+            return null;
+        }
+
+        return provider.parse(player, separator == -1 ? "" : params.substring(separator + 1));
+    }
+
+    /**
+     * @return amount of providers in this index
+     * @since 1.1.0
+     */
+    public int size() {
+        return size;
+    }
+
+}
@@ -27,9 +27,55 @@ import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.List;
+
 public interface PlaceholderProvider {
 
     @Nullable
     String parse(@Nullable final OfflinePlayer offlinePlayer, @NotNull String params);
 
+    /**
+     * Parse many placeholders for many players at once. Override it when the values of a whole batch can be
+     * computed cheaper than one by one, for example with a single database query.
+     * @param players players, one per row of the returned table
+     * @param params  params, one per column of the returned table
+     * @return table with the parsed values
+     * @see net.royalsaga.minecraft.modules.modules.ModuleManager#parsePlaceholders(java.util.Collection, java.util.Collection)
+     * @since 1.1.0
+     */
+    @NotNull
+    default PlaceholderTable parseAll(@NotNull final List<? extends OfflinePlayer> players, @NotNull final List<String> params) {
+        final PlaceholderTable table = new PlaceholderTable(players, params);
+
+        for (int row = 0; row < players.size(); row++) {
+            for (int column = 0; column < params.size(); column++) {
+                table.set(row, column, parse(players.get(row), params.get(column)));
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Get for how long the values returned by {@link #parse(OfflinePlayer, String)} are cached per player and params
+     * @return time to live of the cached values, {@link Duration#ZERO} disables caching
+     * @see CachedPlaceholderProvider
+     * @since 1.1.0
+     */
+    @NotNull
+    default Duration getCacheTtl() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * Get the maximum amount of values cached for this provider, the least recently used values are evicted first
+     * @return maximum size of the cache
+     * @see #getCacheTtl()
+     * @since 1.1.0
+     */
+    default int getCacheSize() {
+        return 1000;
+    }
+
 }
@@ -0,0 +1,123 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.placeholders;
+
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Table of placeholder values with a row per player and a column per params,
+ * stored in a single row-major array
+ *
+ * @see PlaceholderProvider#parseAll(List, List)
+ * @see net.royalsaga.minecraft.modules.modules.ModuleManager#parsePlaceholders(java.util.Collection, java.util.Collection)
+ * @since 1.1.0
+ */
+public final class PlaceholderTable {
+
+    private final List<? extends OfflinePlayer> players;
+    private final List<String> params;
+    private final String[] values;
+
+    /**
+     * Create an empty table
+     *
+     * @param players players, one per row
+     * @param params  params, one per column
+     * @since 1.1.0
+     */
+    public PlaceholderTable(@NotNull final List<? extends OfflinePlayer> players, @NotNull final List<String> params) {
+        this.players = players;
+        this.params = params;
+        this.values = new String[players.size() * params.size()];
+    }
+
+    @NotNull
+    public List<? extends OfflinePlayer> getPlayers() {
+        return players;
+    }
+
+    @NotNull
+    public List<String> getParams() {
+        return params;
+    }
+
+    /**
+     * Get a value
+     *
+     * @param player row of the player
+     * @param param  column of the params
+     * @return value, or null if the placeholder could not be parsed
+     * @since 1.1.0
+     */
+    @Nullable
+    public String get(final int player, final int param) {
+        return values[index(player, param)];
+    }
+
+    /**
+     * Get a value by player and params, both are searched linearly
+     *
+     * @param player player
+     * @param params params
+     * @return value, or null if the placeholder could not be parsed or the player or params are not in this table
+     * @since 1.1.0
+     */
+    @Nullable
+    public String get(@Nullable final OfflinePlayer player, @NotNull final String params) {
+        final int row = players.indexOf(player);
+        final int column = this.params.indexOf(params);
+
+        if (row == -1 || column == -1) {
+            return null;
+        }
+
+        return get(row, column);
+    }
+
+    /**
+     * Set a value
+     *
+     * @param player row of the player
+     * @param param  column of the params
+     * @param value  value
+     * @since 1.1.0
+     */
+    public void set(final int player, final int param, @Nullable final String value) {
+        values[index(player, param)] = value;
+    }
+
+    private int index(final int player, final int param) {
+        if (player < 0 || player >= players.size() || param < 0 || param >= params.size()) {
+            throw new IndexOutOfBoundsException("Cell " + player + ", " + param + " is out of a "
+                    + players.size() + "x" + params.size() + " table");
+        }
+
+        return player * params.size() + param;
+    }
+
+}
@@ -0,0 +1,225 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.placeholders;
+
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text with placeholders that is tokenised once and rendered many times.
+ *
+ * <p>Placeholders are written as {@code %<module id>_<params>%}, or {@code %<identifier>_<module id>_<params>%} when compiled
+ * with an identifier. Each placeholder is bound to its provider through a {@link PlaceholderIndex}; the binding is reused
+ * until a different index is passed to {@link #render(StringBuilder, OfflinePlayer, PlaceholderIndex)}. Placeholders
+ * without a provider, or whose provider returns null, are rendered as they were written.</p>
+ *
+ * @see net.royalsaga.minecraft.modules.modules.ModuleManager#getPlaceholderIndex()
+ * @since 1.1.0
+ */
+public final class PlaceholderTemplate {
+
+    private final String text;
+    /**
+     * Literal text before each placeholder, the last element is the text after the last placeholder
+     */
+    private final String[] literals;
+    private final String[] placeholders;
+    private final String[] ids;
+    private final String[] params;
+
+    private volatile Binding binding;
+
+    private PlaceholderTemplate(@NotNull final String text, @NotNull final List<String> literals, @NotNull final List<String> placeholders,
+                                @NotNull final List<String> ids, @NotNull final List<String> params) {
+        this.text = text;
+        this.literals = literals.toArray(new String[0]);
+        this.placeholders = placeholders.toArray(new String[0]);
+        this.ids = ids.toArray(new String[0]);
+        this.params = params.toArray(new String[0]);
+    }
+
+    /**
+     * Compile a text whose placeholders are written as {@code %<module id>_<params>%}
+     *
+     * @param text text
+     * @return compiled template
+     * @since 1.1.0
+     */
+    @NotNull
+    public static PlaceholderTemplate compile(@NotNull final String text) {
+        return compile(text, null);
+    }
+
+    /**
+     * Compile a text whose placeholders are written as {@code %<identifier>_<module id>_<params>%}, for example with the
+     * identifier of the PlaceholderAPI expansion that calls {@link net.royalsaga.minecraft.modules.modules.ModuleManager}.
+     * Placeholders with other identifiers are kept as literal text.
+     *
+     * @param text       text
+     * @param identifier identifier the placeholders start with, null if they start with the module id
+     * @return compiled template
+     * @since 1.1.0
+     */
+    @NotNull
+    public static PlaceholderTemplate compile(@NotNull final String text, @Nullable final String identifier) {
+        final String prefix = identifier == null ? "" : identifier + '_';
+
+        final List<String> literals = new ArrayList<>();
+        final List<String> placeholders = new ArrayList<>();
+        final List<String> ids = new ArrayList<>();
+        final List<String> params = new ArrayList<>();
+
+        final StringBuilder literal = new StringBuilder();
+        int position = 0;
+
+        while (position < text.length()) {
+            final int start = text.indexOf('%', position);
+            final int end = start == -1 ? -1 : text.indexOf('%', start + 1);
+
+            if (end == -1) {
+                break;
+            }
+
+            final int idStart = start + 1 + prefix.length();
+            final boolean hasPrefix = text.startsWith(prefix, start + 1);
+            final int separator = text.indexOf('_', idStart);
+            final int idEnd = separator == -1 || separator > end ? end : separator;
+
+            if (!hasPrefix || idEnd <= idStart) {
+                // Not one of our placeholders, keep the first % as text and look for a placeholder starting at the second one
+                literal.append(text, position, end);
+                position = end;
+                continue;
+            }
+
+            literal.append(text, position, start);
+            literals.add(literal.toString());
+            literal.setLength(0);
+
+            placeholders.add(text.substring(start, end + 1));
+            ids.add(text.substring(idStart, idEnd));
+            params.add(idEnd == end ? "" : text.substring(idEnd + 1, end));
+
+            position = end + 1;
+        }
+
+        literal.append(text, position, text.length());
+        literals.add(literal.toString());
+
+        return new PlaceholderTemplate(text, literals, placeholders, ids, params);
+    }
+
+    /**
+     * Render the template
+     *
+     * @param builder builder the rendered text is appended to
+     * @param player  player
+     * @param index   index used to find the providers
+     * @since 1.1.0
+     */
+    public void render(@NotNull final StringBuilder builder, @Nullable final OfflinePlayer player, @NotNull final PlaceholderIndex index) {
+        final PlaceholderProvider[] providers = bind(index);
+
+        for (int i = 0; i < providers.length; i++) {
+            builder.append(literals[i]);
+
+            final String value = providers[i] == null ? null : providers[i].parse(player, params[i]);
+            builder.append(value == null ? placeholders[i] : value);
+        }
+
+        builder.append(literals[providers.length]);
+    }
+
+    /**
+     * Render the template to a new string
+     *
+     * @param player player
+     * @param index  index used to find the providers
+     * @return rendered text
+     * @see #render(StringBuilder, OfflinePlayer, PlaceholderIndex)
+     * @since 1.1.0
+     */
+    @NotNull
+    public String render(@Nullable final OfflinePlayer player, @NotNull final PlaceholderIndex index) {
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+
+        final StringBuilder builder = new StringBuilder(text.length() + 16 * placeholders.length);
+        render(builder, player, index);
+        return builder.toString();
+    }
+
+    @NotNull
+    private PlaceholderProvider[] bind(@NotNull final PlaceholderIndex index) {
+        final Binding current = binding;
+
+        if (current != null && current.index == index) {
+            return current.providers;
+        }
+
+        final PlaceholderProvider[] providers = new PlaceholderProvider[ids.length];
+
+        for (int i = 0; i < ids.length; i++) {
+            providers[i] = index.get(ids[i]);
+        }
+
+        binding = new Binding(index, providers);
+        return providers;
+    }
+
+    /**
+     * @return the text this template was compiled from
+     * @since 1.1.0
+     */
+    @NotNull
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return amount of placeholders in this template
+     * @since 1.1.0
+     */
+    public int size() {
+        return placeholders.length;
+    }
+
+    private static final class Binding {
+
+        private final PlaceholderIndex index;
+        private final PlaceholderProvider[] providers;
+
+        private Binding(@NotNull final PlaceholderIndex index, @NotNull final PlaceholderProvider[] providers) {
+            this.index = index;
+            this.providers = providers;
+        }
+
+    }
+
+}
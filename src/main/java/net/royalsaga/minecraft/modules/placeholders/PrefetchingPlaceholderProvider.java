@@ -0,0 +1,135 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.placeholders;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link PlaceholderProvider} that answers synchronously with the last value completed by an {@link AsyncPlaceholderProvider}
+ * and refreshes stale values in the background
+ *
+ * @see net.royalsaga.minecraft.modules.modules.ModuleManager#register(net.royalsaga.minecraft.modules.modules.Module)
+ * @since 1.1.0
+ */
+public final class PrefetchingPlaceholderProvider implements PlaceholderProvider {
+
+    private final AsyncPlaceholderProvider provider;
+    private final Executor executor;
+    private final BiConsumer<String, Throwable> errorHandler;
+    private final PlaceholderCache cache;
+    private final long refreshInterval;
+    private final long timeout;
+
+    /**
+     * @param provider     async provider
+     * @param executor     executor on which {@link AsyncPlaceholderProvider#parseAsync(OfflinePlayer, String)} is called
+     * @param errorHandler handler for the errors of the async provider
+     * @since 1.1.0
+     */
+    public PrefetchingPlaceholderProvider(@NotNull final AsyncPlaceholderProvider provider, @NotNull final Executor executor,
+                                          @NotNull final BiConsumer<String, Throwable> errorHandler) {
+        this.provider = provider;
+        this.executor = executor;
+        this.errorHandler = errorHandler;
+        this.cache = new PlaceholderCache(provider.getCacheSize());
+        this.refreshInterval = provider.getRefreshInterval().toNanos();
+        this.timeout = provider.getTimeout().toNanos();
+    }
+
+    @Override
+    public @Nullable String parse(@Nullable final OfflinePlayer offlinePlayer, @NotNull final String params) {
+        final UUID uuid = offlinePlayer == null ? null : offlinePlayer.getUniqueId();
+        final PlaceholderCache.Entry entry = cache.get(uuid, params);
+
+        if (entry == null || System.nanoTime() - entry.getTime() >= refreshInterval) {
+            refresh(offlinePlayer, uuid, params, entry);
+        }
+
+        return entry == null ? provider.getPendingValue(params) : entry.getValue();
+    }
+
+    private void refresh(@Nullable final OfflinePlayer offlinePlayer, @Nullable final UUID uuid, @NotNull final String params,
+                         @Nullable final PlaceholderCache.Entry previous) {
+        final PlaceholderCache.Loading loading = cache.startLoading(uuid, params, timeout);
+
+        if (loading == null) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                CompletableFuture<String> future;
+
+                try {
+                    future = provider.parseAsync(offlinePlayer, params);
+                } catch (Throwable throwable) {
+                    future = new CompletableFuture<>();
+                    future.completeExceptionally(throwable);
+                }
+
+                future.whenComplete((value, throwable) -> {
+                    if (throwable == null) {
+                        cache.complete(loading, value, System.nanoTime());
+                        return;
+                    }
+
+                    errorHandler.accept("Could not parse placeholder " + params, throwable);
+                    // Keep serving the previous value and wait a full interval before trying again
+                    cache.complete(loading, previous == null ? provider.getPendingValue(params) : previous.getValue(), System.nanoTime());
+                });
+            });
+        } catch (RejectedExecutionException | IllegalPluginAccessException e) {
+            // The executor is shut down or the plugin is disabled
+            cache.cancel(loading);
+        }
+    }
+
+    /**
+     * @return the async provider
+     * @since 1.1.0
+     */
+    @NotNull
+    public AsyncPlaceholderProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return the cache holding the last completed values
+     * @since 1.1.0
+     */
+    @NotNull
+    public PlaceholderCache getCache() {
+        return cache;
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.placeholders;
+
+import net.royalsaga.minecraft.modules.metrics.LatencyHistogram;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link PlaceholderProvider} that records how long another provider takes to parse placeholders
+ *
+ * @see net.royalsaga.minecraft.modules.metrics.ModuleMetrics#getPlaceholders()
+ * @see net.royalsaga.minecraft.modules.metrics.ModuleMetrics#getPlaceholderBatches()
+ * @since 1.1.0
+ */
+public final class TimedPlaceholderProvider implements PlaceholderProvider {
+
+    private final PlaceholderProvider provider;
+    private final LatencyHistogram histogram;
+    private final LatencyHistogram batchHistogram;
+
+    /**
+     * @param provider       provider to time
+     * @param histogram      histogram the durations of single placeholders are recorded to
+     * @param batchHistogram histogram the average duration of each placeholder of a batch is recorded to
+     * @since 1.1.0
+     */
+    public TimedPlaceholderProvider(@NotNull final PlaceholderProvider provider, @NotNull final LatencyHistogram histogram,
+                                    @NotNull final LatencyHistogram batchHistogram) {
+        this.provider = provider;
+        this.histogram = histogram;
+        this.batchHistogram = batchHistogram;
+    }
+
+    @Override
+    public @Nullable String parse(@Nullable final OfflinePlayer offlinePlayer, @NotNull final String params) {
+        final long start = System.nanoTime();
+
+        try {
+            return provider.parse(offlinePlayer, params);
+        } finally {
+            histogram.recordSince(start);
+        }
+    }
+
+    /**
+     * The batch is recorded to the batch histogram as one duration per placeholder, each the average of the batch, so
+     * batches don't skew the percentiles of single placeholders
+     */
+    @Override
+    public @NotNull PlaceholderTable parseAll(@NotNull final List<? extends OfflinePlayer> players, @NotNull final List<String> params) {
+        final long start = System.nanoTime();
+
+        try {
+            return provider.parseAll(players, params);
+        } finally {
+            final long size = (long) players.size() * params.size();
+
+            if (size > 0) {
+                batchHistogram.record((System.nanoTime() - start) / size, size);
+            }
+        }
+    }
+
+    @Override
+    public @NotNull Duration getCacheTtl() {
+        return provider.getCacheTtl();
+    }
+
+    @Override
+    public int getCacheSize() {
+        return provider.getCacheSize();
+    }
+
+    /**
+     * @return the timed provider
+     * @since 1.1.0
+     */
+    @NotNull
+    public PlaceholderProvider getProvider() {
+        return provider;
+    }
+
+}
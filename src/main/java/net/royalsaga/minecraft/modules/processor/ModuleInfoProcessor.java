@@ -0,0 +1,380 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2021 RoyalSaga
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.royalsaga.minecraft.modules.processor;
+
+import net.royalsaga.minecraft.modules.annotations.ModuleInfo;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates a {@link net.royalsaga.minecraft.modules.modules.ModuleIndex} with the
+ * {@link ModuleInfo} classes of a plugin and registers it in {@code META-INF/services}, so
+ * {@link net.royalsaga.minecraft.modules.modules.ModuleManager#registerIndexed()} can create the modules without
+ * reflection.
+ * <p>
+ * Indexed modules need a public constructor taking only the plugin. The index is generated in the package shared by all
+ * the modules, as {@code GeneratedModuleIndex}, unless the {@value #INDEX_OPTION} option sets its fully qualified name.
+ * With Gradle, add the library to the {@code annotationProcessor} configuration.
+ * @since 1.1.0
+ */
+@SupportedAnnotationTypes(ModuleInfoProcessor.MODULE_INFO)
+@SupportedOptions(ModuleInfoProcessor.INDEX_OPTION)
+public final class ModuleInfoProcessor extends AbstractProcessor {
+
+    static final String MODULE_INFO = "net.royalsaga.minecraft.modules.annotations.ModuleInfo";
+    static final String INDEX_OPTION = "modules.index";
+
+    private static final String MODULE = "net.royalsaga.minecraft.modules.modules.Module";
+    private static final String MODULE_INDEX = "net.royalsaga.minecraft.modules.modules.ModuleIndex";
+    private static final String JAVA_PLUGIN = "org.bukkit.plugin.java.JavaPlugin";
+    private static final String INDEX_NAME = "GeneratedModuleIndex";
+
+    private final List<IndexedModule> modules = new ArrayList<>();
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        final Set<? extends Element> elements = roundEnv.getElementsAnnotatedWith(ModuleInfo.class);
+
+        if (elements.isEmpty()) {
+            return false;
+        }
+
+        if (generated) {
+            error(elements.iterator().next(), "@ModuleInfo classes generated by other processors can't be indexed");
+            return false;
+        }
+
+        for (final Element element : elements) {
+            final IndexedModule module = index(element);
+
+            if (module != null) {
+                modules.add(module);
+            }
+        }
+
+        if (modules.isEmpty() || !checkIds()) {
+            return false;
+        }
+
+        generated = true;
+        generate();
+        return false;
+    }
+
+    /**
+     * Check a {@link ModuleInfo} class can be indexed
+     * @return module, or null if it can't be indexed
+     */
+    private IndexedModule index(final Element element) {
+        final Types types = processingEnv.getTypeUtils();
+        final TypeElement module = processingEnv.getElementUtils().getTypeElement(MODULE);
+
+        if (element.getKind() != ElementKind.CLASS || !types.isSubtype(types.erasure(element.asType()), types.erasure(module.asType()))) {
+            error(element, "@ModuleInfo can only be used on subclasses of " + MODULE);
+            return null;
+        }
+
+        final TypeElement type = (TypeElement) element;
+
+        if (!isAccessible(type)) {
+            warn(type, "Module is not indexed, it needs to be a public, non abstract and top level or static class");
+            return null;
+        }
+
+        final TypeElement javaPlugin = processingEnv.getElementUtils().getTypeElement(JAVA_PLUGIN);
+
+        for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PUBLIC) || constructor.getParameters().size() != 1) {
+                continue;
+            }
+
+            final TypeMirror parameter = types.erasure(constructor.getParameters().get(0).asType());
+
+            if (javaPlugin == null || types.isSubtype(parameter, types.erasure(javaPlugin.asType()))) {
+                final ModuleInfo info = type.getAnnotation(ModuleInfo.class);
+                return new IndexedModule(type, info.id(), info.depends(), parameter.toString());
+            }
+        }
+
+        warn(type, "Module is not indexed, it needs a public constructor taking only the plugin");
+        return null;
+    }
+
+    private static boolean isAccessible(final TypeElement type) {
+        final Set<Modifier> modifiers = type.getModifiers();
+
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+
+        final Element enclosing = type.getEnclosingElement();
+
+        if (enclosing.getKind() == ElementKind.PACKAGE) {
+            return true;
+        }
+
+        return modifiers.contains(Modifier.STATIC) && enclosing instanceof TypeElement && isAccessible((TypeElement) enclosing);
+    }
+
+    /**
+     * @return true if every id is used by a single module
+     */
+    private boolean checkIds() {
+        final Map<String, IndexedModule> ids = new HashMap<>();
+        boolean valid = true;
+
+        for (final IndexedModule module : modules) {
+            final IndexedModule previous = ids.put(module.id, module);
+
+            if (previous != null) {
+                error(module.type, "Module id " + module.id + " is already used by " + previous.type.getQualifiedName());
+                valid = false;
+            }
+        }
+
+        return valid;
+    }
+
+    private void generate() {
+        final String name = getIndexName();
+
+        if (name == null) {
+            return;
+        }
+
+        final int separator = name.lastIndexOf('.');
+        final Element[] origins = new Element[modules.size()];
+
+        for (int i = 0; i < origins.length; i++) {
+            origins[i] = modules.get(i).type;
+        }
+
+        try {
+            final JavaFileObject source = processingEnv.getFiler().createSourceFile(name, origins);
+
+            try (PrintWriter writer = new PrintWriter(source.openWriter())) {
+                writeIndex(writer, separator == -1 ? null : name.substring(0, separator), name.substring(separator + 1));
+            }
+
+            final FileObject service = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + MODULE_INDEX, origins);
+
+            try (Writer writer = service.openWriter()) {
+                writer.write(name);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not generate the module index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return fully qualified name of the generated index, or null if it has no package
+     */
+    private String getIndexName() {
+        final String option = processingEnv.getOptions().get(INDEX_OPTION);
+
+        if (option != null && !option.isEmpty()) {
+            return option;
+        }
+
+        String packageName = null;
+
+        for (final IndexedModule module : modules) {
+            final String it = getPackage(module.type);
+            packageName = packageName == null ? it : commonPackage(packageName, it);
+        }
+
+        if (packageName == null || packageName.isEmpty()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "The modules don't share a package, set the module index class name with -A" + INDEX_OPTION + "=<class name>");
+            return null;
+        }
+
+        return packageName + '.' + INDEX_NAME;
+    }
+
+    private String getPackage(final TypeElement type) {
+        final PackageElement element = processingEnv.getElementUtils().getPackageOf(type);
+        return element.isUnnamed() ? "" : element.getQualifiedName().toString();
+    }
+
+    private static String commonPackage(final String first, final String second) {
+        final String[] firstParts = first.split("\\.");
+        final String[] secondParts = second.split("\\.");
+        final StringBuilder common = new StringBuilder();
+
+        for (int i = 0; i < Math.min(firstParts.length, secondParts.length) && firstParts[i].equals(secondParts[i]); i++) {
+            if (common.length() > 0) {
+                common.append('.');
+            }
+
+            common.append(firstParts[i]);
+        }
+
+        return common.toString();
+    }
+
+    private void writeIndex(final PrintWriter writer, final String packageName, final String simpleName) {
+        if (packageName != null) {
+            writer.println("package " + packageName + ";");
+            writer.println();
+        }
+
+        writer.println("// Generated by " + getClass().getName());
+        writer.println("public final class " + simpleName + " implements " + MODULE_INDEX + " {");
+        writer.println();
+        writer.println("    @Override");
+        writer.println("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        writer.println("    public java.util.List<net.royalsaga.minecraft.modules.modules.ModuleDescriptor<?>> getModules() {");
+        writer.println("        final java.util.List<net.royalsaga.minecraft.modules.modules.ModuleDescriptor<?>> modules = new java.util.ArrayList<>();");
+
+        for (final IndexedModule module : modules) {
+            final String type = module.type.getQualifiedName().toString();
+
+            writer.println(String.format("        modules.add(new net.royalsaga.minecraft.modules.modules.ModuleDescriptor(%s.class, %s, %s, plugin -> new %s((%s) plugin)));",
+                    type, literal(module.id), dependencies(module.depends), type, module.pluginType));
+        }
+
+        writer.println("        return modules;");
+        writer.println("    }");
+        writer.println();
+        writer.println("}");
+    }
+
+    private static String dependencies(final String[] depends) {
+        if (depends.length == 0) {
+            return "java.util.Collections.emptyList()";
+        }
+
+        final StringBuilder builder = new StringBuilder("java.util.Arrays.asList(");
+
+        for (int i = 0; i < depends.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(literal(depends[i]));
+        }
+
+        return builder.append(')').toString();
+    }
+
+    private static String literal(final String value) {
+        final StringBuilder builder = new StringBuilder("\"");
+
+        for (final char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                case '\\':
+                    builder.append('\\').append(c);
+                    break;
+                case '\b':
+                    builder.append("\\b");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\f':
+                    builder.append("\\f");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x7f) {
+                        // Unicode escapes are translated before the source is parsed, an escaped line feed would end the line
+                        builder.append(String.format("\\%03o", (int) c));
+                    } else if (c > 0x7e) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+
+        return builder.append('"').toString();
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warn(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private static final class IndexedModule {
+
+        private final TypeElement type;
+        private final String id;
+        private final String[] depends;
+        /**
+         * Erased type of the constructor parameter, the generated factory casts the plugin to it
+         */
+        private final String pluginType;
+
+        private IndexedModule(final TypeElement type, final String id, final String[] depends, final String pluginType) {
+            this.type = type;
+            this.id = id;
+            this.depends = depends;
+            this.pluginType = pluginType;
+        }
+
+    }
+
+}